@@ -0,0 +1,48 @@
+package com.pragma.ms_capacidades.application.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pragma.ms_capacidades.domain.model.Technology;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PageResponseSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private PageResponse<CapacityResponse> page;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper();
+
+        List<Long> techIds = LongStream.rangeClosed(1, 5).boxed().toList();
+        List<Technology> technologies = techIds.stream().map(id -> new Technology(id, "Tech " + id)).toList();
+        List<CapacityResponse> content = LongStream.rangeClosed(1, pageSize)
+                .mapToObj(id -> new CapacityResponse(id, "Capacidad " + id, "Descripcion " + id,
+                        techIds, technologies, techIds.size()))
+                .toList();
+
+        page = new PageResponse<>(0, pageSize, 10_000L, content, "bmFtZXxhc2N8MTB8Q2FwYWNpZGFk");
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,74 @@
+package com.pragma.ms_capacidades.application.mapper;
+
+import com.pragma.ms_capacidades.application.dto.CapacityRequest;
+import com.pragma.ms_capacidades.application.dto.CapacityResponse;
+import com.pragma.ms_capacidades.domain.model.Capacity;
+import com.pragma.ms_capacidades.domain.model.Technology;
+import com.pragma.ms_capacidades.infrastructure.out.r2dbc.entity.CapacityEntity;
+import com.pragma.ms_capacidades.infrastructure.out.r2dbc.mapper.ICapacityEntityMapper;
+import com.pragma.ms_capacidades.infrastructure.out.r2dbc.projections.CapacityWithTechnologyIdsProjection;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class CapacityMapperBenchmark {
+
+    private ICapacityRequestMapper requestMapper;
+    private ICapacityEntityMapper entityMapper;
+
+    private CapacityRequest request;
+    private Capacity capacity;
+    private CapacityEntity entity;
+    private CapacityWithTechnologyIdsProjection projection;
+
+    @Setup
+    public void setup() {
+        requestMapper = Mappers.getMapper(ICapacityRequestMapper.class);
+        entityMapper = Mappers.getMapper(ICapacityEntityMapper.class);
+
+        List<Long> techIds = LongStream.rangeClosed(1, 10).boxed().toList();
+        List<Technology> technologies = techIds.stream().map(id -> new Technology(id, "Tech " + id)).toList();
+
+        request = new CapacityRequest("Backend Java", "Desarrollo backend", techIds);
+        capacity = new Capacity(1L, "Backend Java", "Desarrollo backend", techIds, technologies, techIds.size());
+        entity = new CapacityEntity(1L, "Backend Java", "Desarrollo backend", techIds.size(), techIds);
+        projection = new CapacityWithTechnologyIdsProjection(1L, "Backend Java", "Desarrollo backend", 10L, techIds);
+    }
+
+    @Benchmark
+    public Capacity requestToModel() {
+        return requestMapper.toCapacityModel(request);
+    }
+
+    @Benchmark
+    public CapacityResponse modelToResponse() {
+        return requestMapper.toCapacityResponse(capacity);
+    }
+
+    @Benchmark
+    public CapacityEntity modelToEntity() {
+        return entityMapper.toEntity(capacity);
+    }
+
+    @Benchmark
+    public Capacity entityToModel() {
+        return entityMapper.toModel(entity);
+    }
+
+    @Benchmark
+    public Capacity projectionToModel() {
+        return entityMapper.toModelWithTechnologyIds(projection);
+    }
+}
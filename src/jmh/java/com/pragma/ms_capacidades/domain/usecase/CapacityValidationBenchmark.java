@@ -0,0 +1,68 @@
+package com.pragma.ms_capacidades.domain.usecase;
+
+import com.pragma.ms_capacidades.domain.model.Capacity;
+import com.pragma.ms_capacidades.domain.spi.ICapacityPersistencePort;
+import com.pragma.ms_capacidades.domain.spi.TechnologyClientPort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class CapacityValidationBenchmark {
+
+    @Param({"3", "20"})
+    private int technologies;
+
+    private CapacityUseCase capacityUseCase;
+    private Capacity validCapacity;
+    private Capacity invalidCapacity;
+
+    @Setup
+    public void setup() {
+        // Los puertos responden de inmediato: se mide solo el costo del pipeline de validacion
+        capacityUseCase = new CapacityUseCase(
+                stub(ICapacityPersistencePort.class, Mono.just(false)),
+                stub(TechnologyClientPort.class, Mono.just(true)));
+
+        List<Long> techIds = LongStream.rangeClosed(1, technologies).boxed().toList();
+        validCapacity = new Capacity(null, "Backend Java", "Desarrollo backend", techIds, null, null);
+        invalidCapacity = new Capacity(null, "", null, List.of(1L, 1L), null, null);
+    }
+
+    @Benchmark
+    public List<String> validateLocalRules() {
+        return capacityUseCase.validateLocalRules(validCapacity);
+    }
+
+    @Benchmark
+    public Capacity validateBusinessRules() {
+        return capacityUseCase.validateBusinessRules(validCapacity).block();
+    }
+
+    @Benchmark
+    public Throwable validateBusinessRulesFailFast() {
+        return capacityUseCase.validateBusinessRules(invalidCapacity)
+                .map(Throwable.class::cast)
+                .onErrorResume(Mono::just)
+                .block();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> port, Mono<Boolean> answer) {
+        return (T) Proxy.newProxyInstance(port.getClassLoader(), new Class<?>[]{port},
+                (proxy, method, args) -> answer);
+    }
+}
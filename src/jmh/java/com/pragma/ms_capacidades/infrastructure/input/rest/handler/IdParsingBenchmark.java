@@ -0,0 +1,39 @@
+package com.pragma.ms_capacidades.infrastructure.input.rest.handler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class IdParsingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int ids;
+
+    private String value;
+
+    @Setup
+    public void setup() {
+        // Mismo formato que el query param: ids separados por coma con espacios opcionales
+        value = LongStream.rangeClosed(1, ids)
+                .mapToObj(id -> id % 2 == 0 ? " " + id : String.valueOf(id))
+                .collect(Collectors.joining(","));
+    }
+
+    @Benchmark
+    public List<Long> parseIds() {
+        return CapacityHandler.parseIds(value);
+    }
+}
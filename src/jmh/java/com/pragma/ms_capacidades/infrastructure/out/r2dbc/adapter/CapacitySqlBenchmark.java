@@ -0,0 +1,47 @@
+package com.pragma.ms_capacidades.infrastructure.out.r2dbc.adapter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class CapacitySqlBenchmark {
+
+    @Param({"name", "technologyCount"})
+    private String sortBy;
+
+    @Param({"3", "20", "200"})
+    private int links;
+
+    private CapacityRepositoryAdapter adapter;
+
+    @Setup
+    public void setup() {
+        // Solo se ejercita la resolucion y construccion del SQL, las dependencias no se usan
+        adapter = new CapacityRepositoryAdapter(null, null, null, null, null);
+    }
+
+    @Benchmark
+    public String pagedStatement() {
+        return adapter.pagedStatement(sortBy, "asc");
+    }
+
+    @Benchmark
+    public String seekStatement() {
+        return adapter.seekStatement(sortBy, "desc");
+    }
+
+    @Benchmark
+    public String buildInsertLinksSql() {
+        return CapacityRepositoryAdapter.buildInsertLinksSql(links);
+    }
+}
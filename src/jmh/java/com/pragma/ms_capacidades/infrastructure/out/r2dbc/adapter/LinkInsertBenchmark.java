@@ -0,0 +1,112 @@
+package com.pragma.ms_capacidades.infrastructure.out.r2dbc.adapter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+// Guardado de las relaciones de una capacidad en su transaccion: un INSERT por tecnologia (como antes) contra el
+// INSERT multi-fila de buildInsertLinksSql. Cada operacion es una capacidad nueva (3 o 20 tecnologias, los limites
+// del dominio). H2 en memoria no tiene red, asi que la diferencia es la cota inferior de lo que ahorra en MySQL;
+// para medir alli: -Dbench.jdbc.driver=com.mysql.cj.jdbc.Driver -Dbench.jdbc.url=jdbc:mysql://...
+// -Dbench.jdbc.user -Dbench.jdbc.password (crea y borra capacity_technology_insert_bench)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+public class LinkInsertBenchmark {
+
+    private static final String TABLE = "capacity_technology_insert_bench";
+
+    @Param({"3", "20"})
+    private int links;
+
+    private Connection connection;
+    private PreparedStatement perRow;
+    private PreparedStatement multiRow;
+    private long capacityId;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException, ClassNotFoundException {
+        // El jar de JMH fusiona los META-INF/services de los drivers, asi que se carga el driver explicitamente
+        Class.forName(System.getProperty("bench.jdbc.driver", "org.h2.Driver"));
+        connection = DriverManager.getConnection(
+                System.getProperty("bench.jdbc.url", "jdbc:h2:mem:links;MODE=MySQL;DB_CLOSE_DELAY=-1"),
+                System.getProperty("bench.jdbc.user", "sa"),
+                System.getProperty("bench.jdbc.password", ""));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+            statement.execute("CREATE TABLE " + TABLE + " ("
+                    + "capacity_id BIGINT NOT NULL, "
+                    + "technology_id BIGINT NOT NULL, "
+                    + "PRIMARY KEY (capacity_id, technology_id), "
+                    + "INDEX idx_insert_bench_technology (technology_id, capacity_id))");
+        }
+        connection.setAutoCommit(false);
+
+        perRow = connection.prepareStatement(
+                "INSERT INTO " + TABLE + " (capacity_id, technology_id) VALUES (?, ?)");
+        // Mismo SQL que envia el adaptador, con los parametros con nombre pasados a posicionales
+        multiRow = connection.prepareStatement(CapacityRepositoryAdapter.buildInsertLinksSql(links)
+                .replace("capacity_technology", TABLE)
+                .replaceAll(":\\w+", "?"));
+    }
+
+    // Se vacia la tabla en cada iteracion para que su tamano no sesgue las ultimas mediciones
+    @Setup(Level.Iteration)
+    public void truncate() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE TABLE " + TABLE);
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+        }
+        connection.commit();
+        connection.close();
+    }
+
+    @Benchmark
+    public int perRowInserts() throws SQLException {
+        long capacity = ++capacityId;
+        int inserted = 0;
+        for (int i = 0; i < links; i++) {
+            perRow.setLong(1, capacity);
+            perRow.setLong(2, i + 1L);
+            inserted += perRow.executeUpdate();
+        }
+        connection.commit();
+        return inserted;
+    }
+
+    @Benchmark
+    public int multiRowInsert() throws SQLException {
+        long capacity = ++capacityId;
+        int index = 1;
+        for (int i = 0; i < links; i++) {
+            multiRow.setLong(index++, capacity);
+            multiRow.setLong(index++, i + 1L);
+        }
+        int inserted = multiRow.executeUpdate();
+        connection.commit();
+        return inserted;
+    }
+}
@@ -0,0 +1,203 @@
+package com.pragma.ms_capacidades.infrastructure.out.r2dbc.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+// Compara sobre 1M de enlaces la consulta del repositorio (NOT EXISTS por cada enlace) con dos reescrituras:
+// candidatas distintas en una tabla derivada + sonda, y GROUP BY ... HAVING. currentWithoutIndex corre la del
+// repositorio sobre una copia sin el indice (technology_id, capacity_id), que es como estaba el esquema.
+// Por defecto usa H2 en memoria; para medir en MySQL: -Dbench.jdbc.driver=com.mysql.cj.jdbc.Driver
+// -Dbench.jdbc.url=jdbc:mysql://... -Dbench.jdbc.user -Dbench.jdbc.password
+// (crea y borra las tablas capacity_technology_bench*, nunca toca capacity_technology)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class OrphanTechnologyQueryBenchmark {
+
+    private static final String TABLE = "capacity_technology_bench";
+    private static final String UNINDEXED_TABLE = TABLE + "_noindex";
+    private static final int LINKS_PER_CAPACITY = 10;
+    private static final int SHARED_TECHNOLOGIES = 5_000;
+
+    private static final String DERIVED_TABLE_QUERY = """
+        SELECT candidates.technology_id
+        FROM (
+            SELECT DISTINCT affected.technology_id
+            FROM capacity_technology affected
+            WHERE affected.capacity_id IN (:capacityIds)
+        ) candidates
+        WHERE NOT EXISTS (
+            SELECT 1
+            FROM capacity_technology other
+            WHERE other.technology_id = candidates.technology_id
+              AND other.capacity_id NOT IN (:capacityIds)
+        )
+    """;
+
+    private static final String GROUP_BY_QUERY = """
+        SELECT ct.technology_id
+        FROM (
+            SELECT DISTINCT affected.technology_id
+            FROM capacity_technology affected
+            WHERE affected.capacity_id IN (:capacityIds)
+        ) candidates
+        JOIN capacity_technology ct ON ct.technology_id = candidates.technology_id
+        GROUP BY ct.technology_id
+        HAVING SUM(CASE WHEN ct.capacity_id IN (:capacityIds) THEN 0 ELSE 1 END) = 0
+    """;
+
+    @Param({"1000000"})
+    private int links;
+
+    @Param({"10", "200"})
+    private int deletedCapacities;
+
+    private Connection connection;
+    private PreparedStatement current;
+    private PreparedStatement currentWithoutIndex;
+    private PreparedStatement derivedTable;
+    private PreparedStatement groupByHaving;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException, ClassNotFoundException {
+        // El jar de JMH fusiona los META-INF/services de los drivers, asi que se carga el driver explicitamente
+        Class.forName(System.getProperty("bench.jdbc.driver", "org.h2.Driver"));
+        connection = DriverManager.getConnection(
+                System.getProperty("bench.jdbc.url", "jdbc:h2:mem:orphans;MODE=MySQL;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE"),
+                System.getProperty("bench.jdbc.user", "sa"),
+                System.getProperty("bench.jdbc.password", ""));
+        createLinks();
+
+        current = prepare(ICapacityTechnologyR2dbcRepository.ORPHAN_TECHNOLOGIES_QUERY, TABLE);
+        currentWithoutIndex = prepare(ICapacityTechnologyR2dbcRepository.ORPHAN_TECHNOLOGIES_QUERY, UNINDEXED_TABLE);
+        derivedTable = prepare(DERIVED_TABLE_QUERY, TABLE);
+        groupByHaving = prepare(GROUP_BY_QUERY, TABLE);
+
+        Set<Long> expected = run(current);
+        if (expected.size() != deletedCapacities
+                || !expected.equals(run(derivedTable))
+                || !expected.equals(run(groupByHaving))) {
+            throw new IllegalStateException("Las consultas no devuelven las mismas tecnologias huerfanas");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+            statement.execute("DROP TABLE IF EXISTS " + UNINDEXED_TABLE);
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public Set<Long> current() throws SQLException {
+        return run(current);
+    }
+
+    @Benchmark
+    public Set<Long> currentWithoutIndex() throws SQLException {
+        return run(currentWithoutIndex);
+    }
+
+    @Benchmark
+    public Set<Long> derivedTable() throws SQLException {
+        return run(derivedTable);
+    }
+
+    @Benchmark
+    public Set<Long> groupByHaving() throws SQLException {
+        return run(groupByHaving);
+    }
+
+    // Cada capacidad enlaza 10 tecnologias compartidas; las que se borran tienen ademas una exclusiva (la huerfana)
+    private void createLinks() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String table : List.of(TABLE, UNINDEXED_TABLE)) {
+                statement.execute("DROP TABLE IF EXISTS " + table);
+                statement.execute("CREATE TABLE " + table + " ("
+                        + "capacity_id BIGINT NOT NULL, "
+                        + "technology_id BIGINT NOT NULL, "
+                        + "PRIMARY KEY (capacity_id, technology_id))");
+            }
+        }
+        connection.setAutoCommit(false);
+        int capacities = links / LINKS_PER_CAPACITY;
+        for (int from = 1; from <= capacities; from += 1_000) {
+            int to = Math.min(capacities, from + 999);
+            String values = IntStream.rangeClosed(from, to)
+                    .mapToObj(this::linksOf)
+                    .collect(Collectors.joining(", "));
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("INSERT INTO " + TABLE + " (capacity_id, technology_id) VALUES " + values);
+            }
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO " + UNINDEXED_TABLE + " SELECT capacity_id, technology_id FROM " + TABLE);
+            statement.execute("CREATE INDEX idx_bench_technology ON " + TABLE + " (technology_id, capacity_id)");
+        }
+    }
+
+    private String linksOf(int capacityId) {
+        String shared = IntStream.range(0, LINKS_PER_CAPACITY)
+                .mapToObj(k -> "(" + capacityId + ", " + ((capacityId + k * 500L) % SHARED_TECHNOLOGIES + 1) + ")")
+                .collect(Collectors.joining(", "));
+        return capacityId <= deletedCapacities
+                ? shared + ", (" + capacityId + ", " + (SHARED_TECHNOLOGIES + capacityId) + ")"
+                : shared;
+    }
+
+    // Expande :capacityIds como lo hace Spring Data y enlaza las capacidades 1..deletedCapacities
+    private PreparedStatement prepare(String query, String table) throws SQLException {
+        String placeholders = IntStream.range(0, deletedCapacities).mapToObj(i -> "?").collect(Collectors.joining(","));
+        String sql = query.replace("capacity_technology", table).replace(":capacityIds", placeholders);
+        PreparedStatement statement = connection.prepareStatement(sql);
+
+        List<Long> ids = LongStream.rangeClosed(1, deletedCapacities).boxed().toList();
+        int occurrences = query.split(":capacityIds", -1).length - 1;
+        int index = 1;
+        for (int i = 0; i < occurrences; i++) {
+            for (Long id : ids) {
+                statement.setLong(index++, id);
+            }
+        }
+        return statement;
+    }
+
+    private Set<Long> run(PreparedStatement statement) throws SQLException {
+        Set<Long> technologyIds = new HashSet<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                technologyIds.add(resultSet.getLong(1));
+            }
+        }
+        return technologyIds;
+    }
+}
@@ -0,0 +1,166 @@
+package com.pragma.ms_capacidades.loadtest;
+
+import com.pragma.ms_capacidades.application.dto.CapacityRequest;
+import com.pragma.ms_capacidades.application.dto.CapacityResponse;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Parametros (-D): loadtest.rps, loadtest.duration-seconds, loadtest.warmup-seconds, loadtest.stub.latency-ms,
+// loadtest.stub.error-rate, loadtest.max-error-rate
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class CapacityLoadTest {
+
+    private static final int RPS = Integer.getInteger("loadtest.rps", 50);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 10));
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 5));
+    private static final double MAX_ERROR_RATE =
+            Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01"));
+    private static final int TECHNOLOGY_POOL = 50;
+
+    private static final TechnologyServiceStub technologyService = TechnologyServiceStub.start(
+            Duration.ofMillis(Long.getLong("loadtest.stub.latency-ms", 5)),
+            Double.parseDouble(System.getProperty("loadtest.stub.error-rate", "0.0")));
+
+    @LocalServerPort
+    private int port;
+
+    private WebClient client;
+    private FixedRateLoadGenerator generator;
+
+    @DynamicPropertySource
+    static void technologyServiceProperties(DynamicPropertyRegistry registry) {
+        registry.add("services.technology.base-url", technologyService::baseUrl);
+    }
+
+    @AfterAll
+    static void stopTechnologyService() {
+        technologyService.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        // Pool propio y sin limite de espera para que el generador no sea el cuello de botella
+        ConnectionProvider provider = ConnectionProvider.builder("loadtest")
+                .maxConnections(500)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        client = WebClient.builder()
+                .baseUrl("http://localhost:" + port + "/api/v1/capacity")
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider)))
+                .build();
+        generator = new FixedRateLoadGenerator(RPS, DURATION);
+    }
+
+    @Test
+    @DisplayName("Load: create, list, byIds, byTechnology and delete at a fixed request rate")
+    void capacityEndpoints_AtFixedRate_ShouldStayWithinErrorBudget() {
+        ConcurrentLinkedQueue<Long> createdIds = new ConcurrentLinkedQueue<>();
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+
+        // El calentamiento (JIT, pools, cache de tecnologias) no entra en el reporte
+        new FixedRateLoadGenerator(RPS, WARMUP).run("warmup", sequence ->
+                create("Warm " + runId + "-" + sequence, createdIds));
+
+        List<FixedRateLoadGenerator.Report> reports = new ArrayList<>();
+
+        reports.add(generator.run("create", sequence -> create("Cap " + runId + "-" + sequence, createdIds)));
+
+        reports.add(generator.run("list", sequence ->
+                client.get()
+                        .uri(uriBuilder -> uriBuilder
+                                .queryParam("page", sequence % 5)
+                                .queryParam("size", 10)
+                                .queryParam("sortBy", sequence % 2 == 0 ? "name" : "technologyCount")
+                                .queryParam("direction", "asc")
+                                .build())
+                        .retrieve()
+                        .toBodilessEntity()));
+
+        List<Long> ids = List.copyOf(createdIds);
+        reports.add(generator.run("byIds", sequence ->
+                client.get()
+                        .uri(uriBuilder -> uriBuilder
+                                .path("/byIds")
+                                .queryParam("ids", sampleIds(ids))
+                                .build())
+                        .retrieve()
+                        .toBodilessEntity()));
+
+        reports.add(generator.run("byTechnology", sequence ->
+                client.get()
+                        .uri(uriBuilder -> uriBuilder
+                                .path("/byTechnology")
+                                .queryParam("technologyId", sequence % TECHNOLOGY_POOL + 1)
+                                .queryParam("size", 10)
+                                .build())
+                        .retrieve()
+                        .toBodilessEntity()));
+
+        reports.add(generator.run("delete", sequence -> {
+            Long id = createdIds.poll();
+            if (id == null) {
+                return Mono.empty();
+            }
+            return client.delete()
+                    .uri(uriBuilder -> uriBuilder.queryParam("ids", id).build())
+                    .retrieve()
+                    .toBodilessEntity();
+        }));
+
+        System.out.printf("%nCapacity load test: %d req/s for %ds%n", RPS, DURATION.toSeconds());
+        reports.forEach(System.out::println);
+
+        reports.forEach(report -> assertTrue(report.errorRate() <= MAX_ERROR_RATE,
+                () -> "Error rate over budget: " + report));
+    }
+
+    private Mono<CapacityResponse> create(String name, ConcurrentLinkedQueue<Long> createdIds) {
+        return client.post()
+                .bodyValue(new CapacityRequest(name, "Load test", randomTechnologies()))
+                .retrieve()
+                .bodyToMono(CapacityResponse.class)
+                .doOnNext(created -> createdIds.add(created.getId()));
+    }
+
+    private List<Long> randomTechnologies() {
+        return ThreadLocalRandom.current()
+                .longs(1, TECHNOLOGY_POOL + 1)
+                .distinct()
+                .limit(3)
+                .boxed()
+                .toList();
+    }
+
+    private String sampleIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return "0";
+        }
+        int from = ThreadLocalRandom.current().nextInt(ids.size());
+        return LongStream.range(0, 10)
+                .mapToObj(offset -> String.valueOf(ids.get((int) ((from + offset) % ids.size()))))
+                .collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,77 @@
+package com.pragma.ms_capacidades.loadtest;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+// Modelo abierto: las peticiones salen a ritmo fijo aunque el servicio se atrase,
+// y la latencia se mide desde el instante programado para no ocultar la cola (coordinated omission)
+public class FixedRateLoadGenerator {
+
+    private static final int MAX_IN_FLIGHT = 10_000;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final int rps;
+    private final Duration duration;
+
+    public FixedRateLoadGenerator(int rps, Duration duration) {
+        this.rps = rps;
+        this.duration = duration;
+    }
+
+    public Report run(String scenario, LongFunction<Mono<?>> request) {
+        long total = Math.max(1, rps * duration.toSeconds());
+        long periodNanos = 1_000_000_000L / rps;
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong errors = new AtomicLong();
+        long start = System.nanoTime();
+
+        Flux.interval(Duration.ofNanos(periodNanos))
+                .take(total)
+                .flatMap(sequence -> {
+                    long scheduledAt = start + sequence * periodNanos;
+                    return request.apply(sequence)
+                            .timeout(REQUEST_TIMEOUT)
+                            .then(Mono.fromRunnable(() -> latencies.add(System.nanoTime() - scheduledAt)))
+                            .onErrorResume(error -> {
+                                errors.incrementAndGet();
+                                return Mono.empty();
+                            });
+                }, MAX_IN_FLIGHT)
+                .blockLast();
+
+        long elapsed = System.nanoTime() - start;
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        return new Report(scenario, total, errors.get(), elapsed, sorted);
+    }
+
+    public record Report(String scenario, long requests, long errors, long elapsedNanos, long[] latencies) {
+
+        public double throughput() {
+            return latencies.length / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        public double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+
+        public double percentileMillis(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))] / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-12s requests=%d errors=%d throughput=%.1f req/s p50=%.2fms p99=%.2fms p999=%.2fms",
+                    scenario, requests, errors, throughput(),
+                    percentileMillis(50), percentileMillis(99), percentileMillis(99.9));
+        }
+    }
+}
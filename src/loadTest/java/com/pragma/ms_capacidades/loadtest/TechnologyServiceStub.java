@@ -0,0 +1,84 @@
+package com.pragma.ms_capacidades.loadtest;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+// Servicio de tecnologias en memoria con el mismo contrato que consume TechnologyClientAdapter
+public class TechnologyServiceStub {
+
+    private static final String BASE_PATH = "/api/v1/technology";
+
+    private final Duration latency;
+    private final double errorRate;
+    private final DisposableServer server;
+
+    private TechnologyServiceStub(Duration latency, double errorRate) {
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes
+                        .post(BASE_PATH + "/validate", (request, response) ->
+                                respond(request.receive().then(), response, "true"))
+                        .get(BASE_PATH + "/byIds", (request, response) ->
+                                respond(Mono.empty(), response, technologiesJson(ids(request))))
+                        .delete(BASE_PATH, (request, response) ->
+                                respond(Mono.empty(), response, "true")))
+                .bindNow();
+    }
+
+    public static TechnologyServiceStub start(Duration latency, double errorRate) {
+        return new TechnologyServiceStub(latency, errorRate);
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.port() + "/api/v1";
+    }
+
+    public void stop() {
+        server.disposeNow();
+    }
+
+    private Mono<Void> respond(Mono<Void> consumeBody, HttpServerResponse response, String body) {
+        return consumeBody
+                .then(Mono.delay(latency))
+                .then(Mono.defer(() -> {
+                    // Inyeccion de errores para observar el comportamiento del servicio ante fallos remotos
+                    if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                        return response.status(HttpResponseStatus.INTERNAL_SERVER_ERROR).send().then();
+                    }
+                    return response.header("Content-Type", "application/json")
+                            .sendString(Mono.just(body))
+                            .then();
+                }));
+    }
+
+    private List<Long> ids(HttpServerRequest request) {
+        List<String> values = new QueryStringDecoder(request.uri()).parameters().get("ids");
+        if (values == null || values.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(values.get(0).split(","))
+                .map(String::trim)
+                .map(Long::valueOf)
+                .toList();
+    }
+
+    private String technologiesJson(List<Long> ids) {
+        return ids.stream()
+                .map(id -> "{\"id\":" + id + ",\"name\":\"Tech " + id + "\",\"description\":\"Stub\"}")
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+}
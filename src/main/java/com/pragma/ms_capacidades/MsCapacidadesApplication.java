@@ -1,5 +1,6 @@
 package com.pragma.ms_capacidades;
 
+import com.pragma.ms_capacidades.infrastructure.configuration.MetricsConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
@@ -7,6 +8,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 public class MsCapacidadesApplication {
 
     public static void main(String[] args) {
+        MetricsConfig.instrumentReactorSchedulers();
         SpringApplication.run(MsCapacidadesApplication.class, args);
     }
 
@@ -0,0 +1,22 @@
+package com.pragma.ms_capacidades.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CapacityBatchResponse {
+    private Long index;
+    private Long id;
+    private String name;
+    private boolean created;
+    private List<String> errors;
+}
@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.util.List;
+import java.util.Set;
 
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
 @Getter
@@ -15,6 +16,12 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 public class CapacityResponse {
+
+    public static final String TECHNOLOGIES_FIELD = "technologies";
+    // Campos que se pueden pedir con ?fields=; technologyIds solo se expone al crear y exportar
+    public static final Set<String> SELECTABLE_FIELDS =
+            Set.of("id", "name", "description", "technologyCount", TECHNOLOGIES_FIELD);
+
     private Long id;
     private String name;
     private String description;
@@ -21,4 +21,5 @@ public class PageResponse<T> {
     private int size;
     private long totalElements;
     private List<T> content;
+    private String nextCursor;
 }
@@ -1,5 +1,7 @@
 package com.pragma.ms_capacidades.application.helper;
 
+import com.pragma.ms_capacidades.application.dto.CapacityBatchResponse;
+import com.pragma.ms_capacidades.application.dto.CapacityDeleteChunkResponse;
 import com.pragma.ms_capacidades.application.dto.CapacityRequest;
 import com.pragma.ms_capacidades.application.dto.CapacityResponse;
 import com.pragma.ms_capacidades.application.dto.PageResponse;
@@ -7,15 +9,31 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Set;
 
 public interface ICapacityHelper {
 
     Mono<CapacityResponse> createCapacity(CapacityRequest capacityRequest);
 
-    Mono<PageResponse<CapacityResponse>> getCapacities(int page, int size, String sortBy, String direction);
+    Flux<CapacityBatchResponse> createCapacities(Flux<CapacityRequest> capacityRequests);
 
-    Flux<CapacityResponse> getCapacitiesByIds(List<Long> ids);
+    Mono<PageResponse<CapacityResponse>> getCapacities(int page, int size, String sortBy, String direction,
+                                                       Integer concurrency, Set<String> fields);
+
+    Mono<PageResponse<CapacityResponse>> getCapacitiesByCursor(String cursor, int size, Integer concurrency,
+                                                               Set<String> fields);
+
+    Flux<CapacityResponse> exportCapacities();
+
+    Flux<CapacityResponse> getCapacitiesByIds(List<Long> ids, Integer concurrency, Set<String> fields);
+
+    Flux<CapacityResponse> streamCapacitiesByIds(Flux<Long> ids, Integer concurrency, Set<String> fields);
+
+    Mono<PageResponse<CapacityResponse>> getCapacitiesByTechnology(Long technologyId, String cursor, int size,
+                                                                   Integer concurrency, Set<String> fields);
 
     Mono<Boolean> deleteCapacities(List<Long> ids);
 
+    Flux<CapacityDeleteChunkResponse> deleteCapacitiesInChunks(Flux<Long> ids);
+
 }
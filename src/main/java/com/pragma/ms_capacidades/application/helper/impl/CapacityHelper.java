@@ -1,17 +1,26 @@
 package com.pragma.ms_capacidades.application.helper.impl;
 
+import com.pragma.ms_capacidades.application.dto.CapacityBatchResponse;
+import com.pragma.ms_capacidades.application.dto.CapacityDeleteChunkResponse;
 import com.pragma.ms_capacidades.application.dto.CapacityRequest;
 import com.pragma.ms_capacidades.application.dto.CapacityResponse;
 import com.pragma.ms_capacidades.application.dto.PageResponse;
 import com.pragma.ms_capacidades.application.helper.ICapacityHelper;
 import com.pragma.ms_capacidades.application.mapper.ICapacityRequestMapper;
 import com.pragma.ms_capacidades.domain.api.ICapacityServicePort;
+import com.pragma.ms_capacidades.domain.exception.BadRequestException;
+import com.pragma.ms_capacidades.domain.model.Capacity;
+import com.pragma.ms_capacidades.domain.model.EnrichmentOptions;
+import com.pragma.ms_capacidades.domain.model.PageCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Set;
+
+import static com.pragma.ms_capacidades.domain.utils.Constants.INVALID_CURSOR;
 
 @Service
 @RequiredArgsConstructor
@@ -29,32 +38,147 @@ public class CapacityHelper implements ICapacityHelper {
     }
 
     @Override
-    public Mono<PageResponse<CapacityResponse>> getCapacities(int page, int size, String sortBy, String direction) {
-        return capacityServicePort.count()
-                .flatMap(total ->
-                    capacityServicePort.getCapacities(page, size, sortBy, direction)
-                        .map(capacityRequestMapper::toCapacityResponse)
-                        .collectList()
-                        .map(content -> PageResponse.<CapacityResponse>builder()
-                                .page(page)
-                                .size(size)
-                                .content(content)
-                                .totalElements(total)
-                                .build()
+    public Flux<CapacityBatchResponse> createCapacities(Flux<CapacityRequest> capacityRequests) {
+        return capacityServicePort.saveAll(capacityRequests.map(capacityRequestMapper::toCapacityModel))
+                .map(capacityRequestMapper::toCapacityBatchResponse);
+    }
+
+    @Override
+    public Mono<PageResponse<CapacityResponse>> getCapacities(int page, int size, String sortBy, String direction,
+                                                              Integer concurrency, Set<String> fields) {
+        // El total y la pagina se consultan en paralelo
+        return Mono.zip(
+                        capacityServicePort.count(),
+                        capacityServicePort.getCapacities(page, size, sortBy, direction, toOptions(concurrency, fields))
+                                .collectList()
+                )
+                .map(tuple -> toPageResponse(page, size, tuple.getT1(), tuple.getT2(), sortBy, direction, fields));
+    }
+
+    @Override
+    public Mono<PageResponse<CapacityResponse>> getCapacitiesByCursor(String cursor, int size, Integer concurrency,
+                                                                      Set<String> fields) {
+        return Mono.fromSupplier(() -> PageCursor.decode(cursor))
+                .flatMap(pageCursor -> Mono.zip(
+                                capacityServicePort.count(),
+                                capacityServicePort.getCapacitiesAfter(pageCursor, size, toOptions(concurrency, fields))
+                                        .collectList()
                         )
+                        .map(tuple -> toPageResponse(0, size, tuple.getT1(), tuple.getT2(),
+                                pageCursor.getSortBy(), pageCursor.getDirection(), fields))
                 );
     }
 
     @Override
-    public Flux<CapacityResponse> getCapacitiesByIds(List<Long> ids) {
-        return capacityServicePort.getCapacitiesByIds(ids)
+    public Flux<CapacityResponse> exportCapacities() {
+        return capacityServicePort.exportCapacities()
                 .map(capacityRequestMapper::toCapacityResponse);
     }
 
+    @Override
+    public Flux<CapacityResponse> getCapacitiesByIds(List<Long> ids, Integer concurrency, Set<String> fields) {
+        return capacityServicePort.getCapacitiesByIds(ids, toOptions(concurrency, fields))
+                .map(capacity -> toSelectedResponse(capacity, fields));
+    }
+
+    @Override
+    public Flux<CapacityResponse> streamCapacitiesByIds(Flux<Long> ids, Integer concurrency, Set<String> fields) {
+        return capacityServicePort.streamCapacitiesByIds(ids, toOptions(concurrency, fields))
+                .map(capacity -> toSelectedResponse(capacity, fields));
+    }
+
+    // El cursor es el id de la ultima capacidad entregada
+    @Override
+    public Mono<PageResponse<CapacityResponse>> getCapacitiesByTechnology(Long technologyId, String cursor, int size,
+                                                                          Integer concurrency, Set<String> fields) {
+        return Mono.fromSupplier(() -> parseCapacityCursor(cursor))
+                .flatMap(afterCapacityId -> Mono.zip(
+                        capacityServicePort.countByTechnology(technologyId),
+                        capacityServicePort.getCapacitiesByTechnology(technologyId, afterCapacityId, size,
+                                        toOptions(concurrency, fields))
+                                .collectList()
+                ))
+                .map(tuple -> {
+                    List<Capacity> capacities = tuple.getT2();
+                    String nextCursor = !capacities.isEmpty() && capacities.size() == size
+                            ? String.valueOf(capacities.get(capacities.size() - 1).getId())
+                            : null;
+                    return PageResponse.<CapacityResponse>builder()
+                            .page(0)
+                            .size(size)
+                            .content(capacities.stream().map(capacity -> toSelectedResponse(capacity, fields)).toList())
+                            .totalElements(tuple.getT1())
+                            .nextCursor(nextCursor)
+                            .build();
+                });
+    }
+
     @Override
     public Mono<Boolean> deleteCapacities(List<Long> ids) {
         return capacityServicePort.deleteCapacities(ids);
     }
 
+    @Override
+    public Flux<CapacityDeleteChunkResponse> deleteCapacitiesInChunks(Flux<Long> ids) {
+        return capacityServicePort.deleteCapacitiesInChunks(ids)
+                .map(capacityRequestMapper::toCapacityDeleteChunkResponse);
+    }
+
+    // Solo hay siguiente cursor cuando la pagina viene completa
+    private PageResponse<CapacityResponse> toPageResponse(int page, int size, long total, List<Capacity> capacities,
+                                                          String sortBy, String direction, Set<String> fields) {
+        String nextCursor = !capacities.isEmpty() && capacities.size() == size
+                ? PageCursor.after(capacities.get(capacities.size() - 1), sortBy, direction).encode()
+                : null;
 
+        return PageResponse.<CapacityResponse>builder()
+                .page(page)
+                .size(size)
+                .content(capacities.stream().map(capacity -> toSelectedResponse(capacity, fields)).toList())
+                .totalElements(total)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private Long parseCapacityCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.valueOf(cursor.trim());
+        } catch (NumberFormatException ex) {
+            throw new BadRequestException(INVALID_CURSOR);
+        }
+    }
+
+    // Sin fields se responde completo como siempre; las tecnologias solo se resuelven si se piden
+    private EnrichmentOptions toOptions(Integer concurrency, Set<String> fields) {
+        return new EnrichmentOptions(concurrency,
+                fields.isEmpty() || fields.contains(CapacityResponse.TECHNOLOGIES_FIELD));
+    }
+
+    // CapacityResponse omite los nulos al serializar, basta con limpiar lo que no se pidio
+    private CapacityResponse toSelectedResponse(Capacity capacity, Set<String> fields) {
+        CapacityResponse response = capacityRequestMapper.toCapacityResponse(capacity);
+        if (fields.isEmpty()) {
+            return response;
+        }
+        if (!fields.contains("id")) {
+            response.setId(null);
+        }
+        if (!fields.contains("name")) {
+            response.setName(null);
+        }
+        if (!fields.contains("description")) {
+            response.setDescription(null);
+        }
+        if (!fields.contains("technologyCount")) {
+            response.setTechnologyCount(null);
+        }
+        if (!fields.contains(CapacityResponse.TECHNOLOGIES_FIELD)) {
+            response.setTechnologies(null);
+        }
+        response.setTechnologyIds(null);
+        return response;
+    }
 }
@@ -1,8 +1,12 @@
 package com.pragma.ms_capacidades.application.mapper;
 
+import com.pragma.ms_capacidades.application.dto.CapacityBatchResponse;
+import com.pragma.ms_capacidades.application.dto.CapacityDeleteChunkResponse;
 import com.pragma.ms_capacidades.application.dto.CapacityRequest;
 import com.pragma.ms_capacidades.application.dto.CapacityResponse;
 import com.pragma.ms_capacidades.domain.model.Capacity;
+import com.pragma.ms_capacidades.domain.model.CapacityBatchResult;
+import com.pragma.ms_capacidades.domain.model.CapacityDeleteChunkResult;
 import org.mapstruct.Mapper;
 import org.mapstruct.ReportingPolicy;
 
@@ -14,4 +18,8 @@ public interface ICapacityRequestMapper {
     Capacity toCapacityModel(CapacityRequest capacityRequest);
 
     CapacityResponse toCapacityResponse(Capacity capacity);
+
+    CapacityBatchResponse toCapacityBatchResponse(CapacityBatchResult result);
+
+    CapacityDeleteChunkResponse toCapacityDeleteChunkResponse(CapacityDeleteChunkResult result);
 }
@@ -1,6 +1,10 @@
 package com.pragma.ms_capacidades.domain.api;
 
 import com.pragma.ms_capacidades.domain.model.Capacity;
+import com.pragma.ms_capacidades.domain.model.CapacityBatchResult;
+import com.pragma.ms_capacidades.domain.model.CapacityDeleteChunkResult;
+import com.pragma.ms_capacidades.domain.model.EnrichmentOptions;
+import com.pragma.ms_capacidades.domain.model.PageCursor;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -9,12 +13,29 @@ import java.util.List;
 public interface ICapacityServicePort {
     Mono<Capacity> save(Capacity capacity);
 
-    Flux<Capacity> getCapacities(int page, int size, String sortBy, String direction);
+    Flux<CapacityBatchResult> saveAll(Flux<Capacity> capacities);
+
+    Flux<Capacity> getCapacities(int page, int size, String sortBy, String direction, EnrichmentOptions options);
+
+    Flux<Capacity> getCapacitiesAfter(PageCursor cursor, int size, EnrichmentOptions options);
 
     Mono<Long> count();
 
-    Flux<Capacity> getCapacitiesByIds(List<Long> ids);
+    Flux<Capacity> exportCapacities();
+
+    Flux<Capacity> getCapacitiesByIds(List<Long> ids, EnrichmentOptions options);
+
+    Flux<Capacity> streamCapacitiesByIds(Flux<Long> ids, EnrichmentOptions options);
+
+    Flux<Capacity> getCapacitiesByTechnology(Long technologyId, Long afterCapacityId, int size,
+                                             EnrichmentOptions options);
+
+    Mono<Long> countByTechnology(Long technologyId);
 
      Mono<Boolean> deleteCapacities(List<Long> ids);
 
+    Flux<CapacityDeleteChunkResult> deleteCapacitiesInChunks(Flux<Long> ids);
+
+    Mono<Long> rebuildTechnologyCounts();
+
 }
@@ -0,0 +1,8 @@
+package com.pragma.ms_capacidades.domain.api;
+
+import reactor.core.publisher.Mono;
+
+public interface ITechnologyOutboxServicePort {
+
+    Mono<Integer> relayTechnologyDeletions();
+}
@@ -0,0 +1,29 @@
+package com.pragma.ms_capacidades.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CapacityBatchResult {
+    // Posicion del elemento en el flujo de entrada
+    private Long index;
+    private Long id;
+    private String name;
+    private boolean created;
+    private List<String> errors;
+
+    public static CapacityBatchResult created(Long index, Capacity capacity) {
+        return new CapacityBatchResult(index, capacity.getId(), capacity.getName(), true, List.of());
+    }
+
+    public static CapacityBatchResult failed(Long index, String name, List<String> errors) {
+        return new CapacityBatchResult(index, null, name, false, errors);
+    }
+}
@@ -0,0 +1,30 @@
+package com.pragma.ms_capacidades.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CapacityDeleteChunkResult {
+    // Posicion del bloque en el flujo de entrada
+    private Long chunk;
+    private List<Long> ids;
+    private boolean deleted;
+    // Ids procesados hasta este bloque inclusive, hayan fallado o no
+    private Long processed;
+    private List<String> errors;
+
+    public static CapacityDeleteChunkResult deleted(Long chunk, List<Long> ids, long processed) {
+        return new CapacityDeleteChunkResult(chunk, ids, true, processed, List.of());
+    }
+
+    public static CapacityDeleteChunkResult failed(Long chunk, List<Long> ids, long processed, List<String> errors) {
+        return new CapacityDeleteChunkResult(chunk, ids, false, processed, errors);
+    }
+}
@@ -0,0 +1,10 @@
+package com.pragma.ms_capacidades.domain.model;
+
+public enum CountStrategy {
+    // SELECT COUNT(*) en cada consulta
+    EXACT,
+    // COUNT(*) reutilizado durante un TTL e invalidado en cada escritura
+    CACHED,
+    // Estimacion a partir de las estadisticas de la tabla (information_schema)
+    ESTIMATED
+}
@@ -0,0 +1,21 @@
+package com.pragma.ms_capacidades.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class EnrichmentOptions {
+    // Maximo de llamadas simultaneas al servicio de tecnologias; null usa el valor global
+    private Integer concurrency;
+    // false devuelve las capacidades tal como salen de la BD, sin llamar al servicio de tecnologias
+    private boolean includeTechnologies;
+
+    public static EnrichmentOptions defaults() {
+        return new EnrichmentOptions(null, true);
+    }
+}
@@ -0,0 +1,53 @@
+package com.pragma.ms_capacidades.domain.model;
+
+import com.pragma.ms_capacidades.domain.exception.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static com.pragma.ms_capacidades.domain.utils.Constants.INVALID_CURSOR;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PageCursor {
+    private String sortBy;
+    private String direction;
+    private Long lastId;
+    private String lastValue;
+
+    public static PageCursor after(Capacity capacity, String sortBy, String direction) {
+        String lastValue = "name".equalsIgnoreCase(sortBy)
+                ? capacity.getName()
+                : String.valueOf(capacity.getTechnologyCount());
+        return new PageCursor(sortBy, direction, capacity.getId(), lastValue);
+    }
+
+    // Token opaco: base64url de "sortBy|direction|lastId|lastValue" (el valor va al final por si contiene '|')
+    public String encode() {
+        String raw = String.join("|", sortBy, direction, String.valueOf(lastId), lastValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4) {
+                throw new BadRequestException(INVALID_CURSOR);
+            }
+            PageCursor cursor = new PageCursor(parts[0], parts[1], Long.valueOf(parts[2]), parts[3]);
+            if (!"name".equalsIgnoreCase(cursor.getSortBy())) {
+                Long.parseLong(cursor.getLastValue());
+            }
+            return cursor;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(INVALID_CURSOR);
+        }
+    }
+}
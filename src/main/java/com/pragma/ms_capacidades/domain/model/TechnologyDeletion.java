@@ -0,0 +1,19 @@
+package com.pragma.ms_capacidades.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Tecnologia huerfana pendiente de borrar en el servicio de tecnologias (fila del outbox)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TechnologyDeletion {
+    private Long id;
+    private Long technologyId;
+    private Integer attempts;
+    // La tecnologia volvio a asociarse a una capacidad despues de encolarse
+    private boolean referenced;
+}
@@ -1,6 +1,7 @@
 package com.pragma.ms_capacidades.domain.spi;
 
 import com.pragma.ms_capacidades.domain.model.Capacity;
+import com.pragma.ms_capacidades.domain.model.PageCursor;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -9,17 +10,29 @@ import java.util.List;
 public interface ICapacityPersistencePort {
     Mono<Capacity> save(Capacity capacity);
 
+    Flux<Capacity> saveAll(List<Capacity> capacities);
+
     Mono<Boolean> existsByName(String name);
 
+    Flux<String> findExistingNames(List<String> names);
+
     Flux<Capacity> findAllPaged(int page, int size, String sortBy, String direction);
 
+    Flux<Capacity> findPageAfter(PageCursor cursor, int size);
+
+    Flux<Capacity> streamAllWithTechnologyIds();
+
     Mono<Long> count();
 
-    Flux<Long> findTechnologyIdsByCapacityId(Long capacityId);
+    Flux<Capacity> findCapacitiesWithTechnologyIds(List<Long> ids);
+
+    Flux<Capacity> findCapacitiesByTechnology(Long technologyId, Long afterCapacityId, int size);
 
-    Flux<Capacity> findCapacitiesByIds(List<Long> ids);
+    Mono<Long> countByTechnology(Long technologyId);
 
     Mono<Boolean> deleteCapacities(List<Long> ids);
 
     Flux<Long> findTechnologiesNotReferencedInOtherCapacities(List<Long> capacitiesIds);
+
+    Mono<Long> rebuildTechnologyCounts();
 }
@@ -0,0 +1,20 @@
+package com.pragma.ms_capacidades.domain.spi;
+
+import com.pragma.ms_capacidades.domain.model.TechnologyDeletion;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+public interface ITechnologyOutboxPersistencePort {
+
+    // Las filas devueltas quedan reservadas para quien las reclama durante el lease
+    Flux<TechnologyDeletion> claimPendingDeletions(int limit, Duration lease);
+
+    Mono<Void> removeDeletions(List<Long> ids);
+
+    Mono<Void> scheduleRetry(List<Long> ids, Duration delay);
+
+    Mono<Void> markFailed(List<Long> ids);
+}
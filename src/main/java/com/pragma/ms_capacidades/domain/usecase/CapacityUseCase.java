@@ -4,24 +4,44 @@ import com.pragma.ms_capacidades.domain.api.ICapacityServicePort;
 import com.pragma.ms_capacidades.domain.exception.BadRequestException;
 import com.pragma.ms_capacidades.domain.exception.CapacityAlreadyExistsException;
 import com.pragma.ms_capacidades.domain.model.Capacity;
+import com.pragma.ms_capacidades.domain.model.CapacityBatchResult;
+import com.pragma.ms_capacidades.domain.model.CapacityDeleteChunkResult;
+import com.pragma.ms_capacidades.domain.model.EnrichmentOptions;
+import com.pragma.ms_capacidades.domain.model.PageCursor;
 import com.pragma.ms_capacidades.domain.model.Technology;
 import com.pragma.ms_capacidades.domain.spi.ICapacityPersistencePort;
 import com.pragma.ms_capacidades.domain.spi.TechnologyClientPort;
+import com.pragma.ms_capacidades.infrastructure.input.rest.dto.TechnologyResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
+import static com.pragma.ms_capacidades.domain.utils.Constants.CAPACITIES_NOT_DELETED;
 import static com.pragma.ms_capacidades.domain.utils.Constants.CAPACITY_ALREADY_EXISTS;
+import static com.pragma.ms_capacidades.domain.utils.Constants.CAPACITY_NOT_SAVED;
 import static com.pragma.ms_capacidades.domain.utils.Constants.DESCRIPTION_IS_REQUIRED;
 import static com.pragma.ms_capacidades.domain.utils.Constants.INVALID_TECH_SIZE;
 import static com.pragma.ms_capacidades.domain.utils.Constants.NAME_IS_REQUIRED;
 import static com.pragma.ms_capacidades.domain.utils.Constants.REPEATED_TECH;
 import static com.pragma.ms_capacidades.domain.utils.Constants.TECHNOLOGY_NOT_EXIST;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class CapacityUseCase implements ICapacityServicePort {
@@ -29,24 +49,63 @@ public class CapacityUseCase implements ICapacityServicePort {
     private final ICapacityPersistencePort capacityPersistencePort;
     private final TechnologyClientPort technologyClientPort;
 
+    @Value("${capacity.enrichment.batch-size:100}")
+    private int enrichmentBatchSize;
+
+    @Value("${capacity.enrichment.max-concurrency:4}")
+    private int enrichmentMaxConcurrency;
+
+    @Value("${capacity.batch.chunk-size:100}")
+    private int batchChunkSize;
+
+    // Mitades de un bloque que se validan a la vez cuando la validacion conjunta falla (1 = en serie)
+    @Value("${capacity.batch.validation-concurrency:2}")
+    private int batchValidationConcurrency;
+
+    @Value("${capacity.by-ids.chunk-size:200}")
+    private int byIdsChunkSize;
+
+    @Value("${capacity.by-ids.max-concurrency:4}")
+    private int byIdsMaxConcurrency;
+
+    @Value("${capacity.delete.chunk-size:100}")
+    private int deleteChunkSize;
+
+    // En modo optimista no se consulta el nombre: el UNIQUE de la tabla rechaza los duplicados
+    @Value("${capacity.create.optimistic:false}")
+    private boolean optimisticCreate;
+
     @Override
     public Mono<Capacity> save(Capacity capacity) {
         return validateBusinessRules(capacity)
-                //Usar Mono.defer para que existsByName solo se ejecute si la validación pasa
-                .then(Mono.defer(() -> capacityPersistencePort.existsByName(capacity.getName())))
-                .flatMap(exists -> {
-                    if (Boolean.TRUE.equals(exists)) {
-                        return Mono.error(new CapacityAlreadyExistsException(CAPACITY_ALREADY_EXISTS));
-                    }
-                    return capacityPersistencePort.save(capacity);
-                });
+                //Usar Mono.defer para que el guardado solo se ejecute si la validación pasa
+                .then(Mono.defer(() -> capacityPersistencePort.save(capacity)));
     }
 
+    // Cada bloque se valida y se guarda completo antes de leer el siguiente: memoria acotada por chunk-size
     @Override
-    public Flux<Capacity> getCapacities(int page, int size, String sortBy, String direction) {
+    public Flux<CapacityBatchResult> saveAll(Flux<Capacity> capacities) {
+        return capacities
+                .index()
+                .buffer(Math.max(1, batchChunkSize))
+                .concatMap(this::saveChunk, 1);
+    }
+
+    @Override
+    public Flux<Capacity> getCapacities(int page, int size, String sortBy, String direction,
+                                        EnrichmentOptions options) {
         return capacityPersistencePort
                 .findAllPaged(page, size, sortBy, direction)
-                .flatMap(this::getCapacityWhitTechnologies);
+                .collectList()
+                .flatMapMany(capacities -> enrichWithTechnologies(capacities, options));
+    }
+
+    @Override
+    public Flux<Capacity> getCapacitiesAfter(PageCursor cursor, int size, EnrichmentOptions options) {
+        return capacityPersistencePort
+                .findPageAfter(cursor, size)
+                .collectList()
+                .flatMapMany(capacities -> enrichWithTechnologies(capacities, options));
     }
 
     @Override
@@ -55,46 +114,284 @@ public class CapacityUseCase implements ICapacityServicePort {
     }
 
     @Override
-    public Flux<Capacity> getCapacitiesByIds(List<Long> ids) {
-        return capacityPersistencePort.findCapacitiesByIds(ids)
-                .flatMap(this::getCapacityWhitTechnologies);
+    public Flux<Capacity> exportCapacities() {
+        return capacityPersistencePort.streamAllWithTechnologyIds();
     }
 
     @Override
-    public Mono<Boolean> deleteCapacities(List<Long> ids) {
-        return capacityPersistencePort.findTechnologiesNotReferencedInOtherCapacities(ids)
+    public Flux<Capacity> getCapacitiesByIds(List<Long> ids, EnrichmentOptions options) {
+        return capacityPersistencePort.findCapacitiesWithTechnologyIds(ids)
                 .collectList()
-                .flatMap(technologyIds -> {
-                    if (!technologyIds.isEmpty()) {
-                        return technologyClientPort.deleteTechnolgies(technologyIds);
-                    }
-                    return Mono.just(true);
-                })
-                .flatMap(res -> {
-                        if(Boolean.TRUE.equals(res)) {
-                            return capacityPersistencePort.deleteCapacities(ids);
+                .flatMapMany(capacities -> enrichWithTechnologies(capacities, options));
+    }
+
+    // Ids sin repetir en bloques acotados (IN pequenos) con concurrencia limitada; cada bloque se emite en cuanto
+    // termina, sin esperar al resto ni conservar el orden de entrada
+    @Override
+    public Flux<Capacity> streamCapacitiesByIds(Flux<Long> ids, EnrichmentOptions options) {
+        return ids
+                .distinct()
+                .buffer(Math.max(1, byIdsChunkSize))
+                .flatMap(chunk -> getCapacitiesByIds(chunk, options), Math.max(1, byIdsMaxConcurrency));
+    }
+
+    @Override
+    public Flux<Capacity> getCapacitiesByTechnology(Long technologyId, Long afterCapacityId, int size,
+                                                    EnrichmentOptions options) {
+        return capacityPersistencePort.findCapacitiesByTechnology(technologyId, afterCapacityId, size)
+                .collectList()
+                .flatMapMany(capacities -> enrichWithTechnologies(capacities, options));
+    }
+
+    @Override
+    public Mono<Long> countByTechnology(Long technologyId) {
+        return capacityPersistencePort.countByTechnology(technologyId);
+    }
+
+    // Las tecnologias huerfanas quedan en el outbox junto con el borrado; no se espera al servicio de tecnologias
+    @Override
+    public Mono<Boolean> deleteCapacities(List<Long> ids) {
+        return capacityPersistencePort.deleteCapacities(ids);
+    }
+
+    // Cada bloque es una transaccion corta con su propio calculo de huerfanas; un bloque fallido no detiene al resto
+    @Override
+    public Flux<CapacityDeleteChunkResult> deleteCapacitiesInChunks(Flux<Long> ids) {
+        return Flux.defer(() -> {
+            AtomicLong processed = new AtomicLong();
+            return ids
+                    .buffer(Math.max(1, deleteChunkSize))
+                    .index()
+                    .concatMap(chunk -> capacityPersistencePort.deleteCapacities(chunk.getT2())
+                            .defaultIfEmpty(false)
+                            // Un bloque que la persistencia no confirma se informa como fallido
+                            .map(deleted -> Boolean.TRUE.equals(deleted)
+                                    ? CapacityDeleteChunkResult.deleted(
+                                            chunk.getT1(), chunk.getT2(), processed.addAndGet(chunk.getT2().size()))
+                                    : CapacityDeleteChunkResult.failed(
+                                            chunk.getT1(), chunk.getT2(), processed.addAndGet(chunk.getT2().size()),
+                                            List.of(CAPACITIES_NOT_DELETED)))
+                            .onErrorResume(error -> Mono.just(CapacityDeleteChunkResult.failed(
+                                    chunk.getT1(), chunk.getT2(), processed.addAndGet(chunk.getT2().size()),
+                                    List.of(CAPACITIES_NOT_DELETED)))), 1);
+        });
+    }
+
+    @Override
+    public Mono<Long> rebuildTechnologyCounts() {
+        return capacityPersistencePort.rebuildTechnologyCounts();
+    }
+
+    // Los ids de tecnologias llegan agregados en la misma consulta; una sola llamada remota por pagina, conservando el orden
+    private Flux<Capacity> enrichWithTechnologies(List<Capacity> capacities, EnrichmentOptions options) {
+        if (capacities.isEmpty()) {
+            return Flux.empty();
+        }
+        if (options != null && !options.isIncludeTechnologies()) {
+            // El conteo viene de la columna en ambos caminos; aqui solo se omiten las tecnologias
+            return Flux.fromIterable(capacities)
+                    .doOnNext(capacity -> capacity.setTechnologyIds(null));
+        }
+        Map<Long, List<Long>> technologyIdsByCapacity = capacities.stream()
+                .collect(Collectors.toMap(Capacity::getId, Capacity::getTechnologyIds, (first, second) -> first));
+        return enrichWithTechnologyIds(capacities, technologyIdsByCapacity, options);
+    }
+
+    private Flux<Capacity> enrichWithTechnologyIds(List<Capacity> capacities,
+                                                   Map<Long, List<Long>> technologyIdsByCapacity,
+                                                   EnrichmentOptions options) {
+        List<Long> technologyIds = technologyIdsByCapacity.values().stream()
+                .flatMap(List::stream)
+                .distinct()
+                .toList();
+
+        return getTechnologiesById(technologyIds, resolveConcurrency(options))
+                .flatMapMany(technologiesById -> Flux.fromIterable(capacities)
+                        .map(capacity -> assignTechnologies(
+                                capacity,
+                                technologyIdsByCapacity.getOrDefault(capacity.getId(), List.of()),
+                                technologiesById)));
+    }
+
+    // Los ids se piden en lotes con concurrencia acotada; flatMapSequential conserva el orden de los lotes
+    private Mono<Map<Long, Technology>> getTechnologiesById(List<Long> technologyIds, int concurrency) {
+        if (technologyIds.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return Flux.fromIterable(technologyIds)
+                .buffer(Math.max(1, enrichmentBatchSize))
+                .flatMapSequential(technologyClientPort::getTechnologiesByIds, concurrency)
+                .collectMap(TechnologyResponse::getId, item -> new Technology(item.getId(), item.getName()));
+    }
+
+    private int resolveConcurrency(EnrichmentOptions options) {
+        int max = Math.max(1, enrichmentMaxConcurrency);
+        if (options == null || options.getConcurrency() == null) {
+            return max;
+        }
+        return Math.min(Math.max(1, options.getConcurrency()), max);
+    }
+
+    private Capacity assignTechnologies(Capacity capacity, List<Long> technologyIds,
+                                        Map<Long, Technology> technologiesById) {
+        List<Technology> technologies = technologyIds.stream()
+                .map(technologiesById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        capacity.setTechnologies(technologies);
+        // technologyCount se deja tal como vino de capacities.technology_count: es la clave por la que se ordeno
+        // la pagina y la que codifica el cursor
+        // Los ids agregados solo sirven para resolver; la respuesta expone las tecnologias como antes
+        capacity.setTechnologyIds(null);
+        return capacity;
+    }
+
+    private Flux<CapacityBatchResult> saveChunk(List<Tuple2<Long, Capacity>> chunk) {
+        Map<Long, List<String>> errorsByIndex = new HashMap<>();
+        Set<String> namesInChunk = new HashSet<>();
+        chunk.forEach(item -> {
+            List<String> errors = validateLocalRules(item.getT2());
+            if (errors.isEmpty() && !namesInChunk.add(normalizeName(item.getT2().getName()))) {
+                errors.add(CAPACITY_ALREADY_EXISTS);
+            }
+            errorsByIndex.put(item.getT1(), errors);
+        });
+        List<Tuple2<Long, Capacity>> candidates = chunk.stream()
+                .filter(item -> errorsByIndex.get(item.getT1()).isEmpty())
+                .toList();
+
+        List<String> names = candidates.stream().map(item -> item.getT2().getName()).toList();
+
+        Mono<Set<Long>> withMissingTechnologies = findWithMissingTechnologies(candidates);
+        Mono<Set<String>> existingNames = names.isEmpty()
+                ? Mono.just(Set.of())
+                : capacityPersistencePort.findExistingNames(names).map(this::normalizeName).collect(Collectors.toSet());
+
+        return Mono.zip(withMissingTechnologies, existingNames)
+                .flatMapMany(existing -> {
+                    candidates.forEach(item -> {
+                        List<String> errors = errorsByIndex.get(item.getT1());
+                        if (existing.getT1().contains(item.getT1())) {
+                            errors.add(TECHNOLOGY_NOT_EXIST);
                         }
-                        return Mono.just(false);
+                        if (existing.getT2().contains(normalizeName(item.getT2().getName()))) {
+                            errors.add(CAPACITY_ALREADY_EXISTS);
+                        }
+                    });
+                    List<Tuple2<Long, Capacity>> valid = candidates.stream()
+                            .filter(item -> errorsByIndex.get(item.getT1()).isEmpty())
+                            .toList();
+
+                    return persistChunk(valid)
+                            .collectMap(CapacityBatchResult::getIndex)
+                            .flatMapMany(results -> Flux.fromIterable(chunk)
+                                    .map(item -> results.getOrDefault(item.getT1(), CapacityBatchResult.failed(
+                                            item.getT1(), item.getT2().getName(), errorsByIndex.get(item.getT1())))));
                 });
     }
 
-    private Mono<Capacity> getCapacityWhitTechnologies(Capacity capacity) {
-        return capacityPersistencePort
-                .findTechnologyIdsByCapacityId(capacity.getId())
+    // La existencia se consulta al servicio (no a la cache: una tecnologia recien borrada seguiria alli) con una
+    // sola validacion para los ids distintos del bloque. Si falla, el bloque se parte en mitades y solo se sigue
+    // validando la mitad que falla: una fila mala cuesta del orden de log2(chunk-size) llamadas, no una por fila
+    private Mono<Set<Long>> findWithMissingTechnologies(List<Tuple2<Long, Capacity>> candidates) {
+        List<Long> technologyIds = candidates.stream()
+                .flatMap(item -> item.getT2().getTechnologyIds().stream())
+                .distinct()
+                .toList();
+        if (technologyIds.isEmpty()) {
+            return Mono.just(Set.of());
+        }
+        return technologyClientPort.existAllByIds(technologyIds)
+                .defaultIfEmpty(false)
+                .flatMap(allExist -> {
+                    if (Boolean.TRUE.equals(allExist)) {
+                        return Mono.just(Set.<Long>of());
+                    }
+                    if (candidates.size() == 1) {
+                        return Mono.just(Set.of(candidates.get(0).getT1()));
+                    }
+                    int middle = candidates.size() / 2;
+                    return Flux.just(candidates.subList(0, middle), candidates.subList(middle, candidates.size()))
+                            .flatMap(this::findWithMissingTechnologies, Math.max(1, batchValidationConcurrency))
+                            .flatMapIterable(missing -> missing)
+                            .collect(Collectors.toSet());
+                });
+    }
+
+    // Un solo INSERT transaccional por bloque; si una fila lo rechaza se reintenta uno a uno para aislarla.
+    // Los errores de infraestructura (BD caida, timeouts) no son de una fila: se registran y cortan el stream
+    private Flux<CapacityBatchResult> persistChunk(List<Tuple2<Long, Capacity>> valid) {
+        if (valid.isEmpty()) {
+            return Flux.empty();
+        }
+        return capacityPersistencePort.saveAll(valid.stream().map(Tuple2::getT2).toList())
                 .collectList()
-                .flatMap(technologyIds ->
-                    technologyClientPort.getTechnologiesByIds(technologyIds)
-                        .map(item -> new Technology(item.getId(), item.getName()))
-                        .collectList()
-                        .map(technologies -> {
-                            capacity.setTechnologies(technologies);
-                            capacity.setTechnologyCount(technologies.size());
-                            return capacity;
-                        })
-                );
-    }
-
-    private Mono<Capacity> validateBusinessRules(Capacity capacity) {
+                .flatMapMany(saved -> Flux.range(0, saved.size())
+                        .map(i -> CapacityBatchResult.created(valid.get(i).getT1(), saved.get(i))))
+                .onErrorResume(this::isRowError, error -> {
+                    log.warn("Bloque de {} capacidades rechazado, se guardan una a una: {}", valid.size(),
+                            error.getMessage());
+                    return Flux.fromIterable(valid).concatMap(this::persistOne);
+                })
+                .doOnError(error -> log.error("Error guardando un bloque de {} capacidades", valid.size(), error));
+    }
+
+    private Mono<CapacityBatchResult> persistOne(Tuple2<Long, Capacity> item) {
+        return capacityPersistencePort.save(item.getT2())
+                .map(saved -> CapacityBatchResult.created(item.getT1(), saved))
+                .onErrorResume(this::isRowError, error -> {
+                    log.warn("Capacidad {} rechazada: {}", item.getT2().getName(), error.getMessage());
+                    String message = error instanceof CapacityAlreadyExistsException
+                            ? error.getMessage()
+                            : CAPACITY_NOT_SAVED;
+                    return Mono.just(CapacityBatchResult.failed(item.getT1(), item.getT2().getName(), List.of(message)));
+                });
+    }
+
+    // Nombre duplicado o una restriccion de la tabla que la fila no cumple
+    private boolean isRowError(Throwable error) {
+        return error instanceof CapacityAlreadyExistsException || error instanceof DataIntegrityViolationException;
+    }
+
+    private String normalizeName(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    // Las reglas locales fallan rapido sin I/O; las dos validaciones remotas se ejecutan en paralelo
+    Mono<Capacity> validateBusinessRules(Capacity capacity) {
+        List<String> errors = validateLocalRules(capacity);
+        if (!errors.isEmpty()) {
+            return Mono.error(new BadRequestException(String.join("|", errors)));
+        }
+
+        Mono<Boolean> nameExists = optimisticCreate
+                ? Mono.just(false)
+                : capacityPersistencePort.existsByName(capacity.getName());
+
+        return Mono.zip(
+                        technologyClientPort.existAllByIds(capacity.getTechnologyIds()).defaultIfEmpty(false),
+                        nameExists
+                )
+                .flatMap(result -> {
+                    boolean technologiesMissing = Boolean.FALSE.equals(result.getT1());
+                    boolean nameTaken = Boolean.TRUE.equals(result.getT2());
+                    // Con ambos fallos se informan juntos en un solo 400; un nombre repetido por si solo sigue
+                    // siendo 409, como en el resto del API
+                    if (technologiesMissing && nameTaken) {
+                        return Mono.error(new BadRequestException(
+                                String.join("|", TECHNOLOGY_NOT_EXIST, CAPACITY_ALREADY_EXISTS)));
+                    }
+                    if (technologiesMissing) {
+                        return Mono.error(new BadRequestException(TECHNOLOGY_NOT_EXIST));
+                    }
+                    if (nameTaken) {
+                        return Mono.error(new CapacityAlreadyExistsException(CAPACITY_ALREADY_EXISTS));
+                    }
+                    return Mono.just(capacity);
+                });
+    }
+
+    List<String> validateLocalRules(Capacity capacity) {
         List<String> errors = new ArrayList<>();
         List<Long> techs = capacity.getTechnologyIds();
 
@@ -110,16 +407,6 @@ public class CapacityUseCase implements ICapacityServicePort {
         if (techs != null && (techs.size() != techs.stream().distinct().count())) {
             errors.add(REPEATED_TECH);
         }
-
-        return technologyClientPort.existAllByIds(techs)
-                .flatMap(exists -> {
-                    if (Boolean.FALSE.equals(exists)) {
-                        errors.add(TECHNOLOGY_NOT_EXIST);
-                    }
-                    if (!errors.isEmpty()) {
-                        return Mono.error(new BadRequestException(String.join("|", errors)));
-                    }
-                    return Mono.just(capacity);
-                });
+        return errors;
     }
 }
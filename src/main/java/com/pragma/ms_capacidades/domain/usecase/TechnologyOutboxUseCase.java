@@ -0,0 +1,131 @@
+package com.pragma.ms_capacidades.domain.usecase;
+
+import com.pragma.ms_capacidades.domain.api.ITechnologyOutboxServicePort;
+import com.pragma.ms_capacidades.domain.model.TechnologyDeletion;
+import com.pragma.ms_capacidades.domain.spi.ITechnologyOutboxPersistencePort;
+import com.pragma.ms_capacidades.domain.spi.TechnologyClientPort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Entrega al servicio de tecnologias los borrados encolados por deleteCapacities.
+// Entrega al menos una vez: un lote fallido se reintenta con backoff exponencial acotado hasta max-attempts;
+// despues la fila queda marcada como fallida
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TechnologyOutboxUseCase implements ITechnologyOutboxServicePort {
+
+    private final ITechnologyOutboxPersistencePort technologyOutboxPersistencePort;
+    private final TechnologyClientPort technologyClientPort;
+
+    @Value("${capacity.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${capacity.outbox.initial-backoff:2s}")
+    private Duration initialBackoff;
+
+    @Value("${capacity.outbox.max-backoff:10m}")
+    private Duration maxBackoff;
+
+    @Value("${capacity.outbox.max-attempts:15}")
+    private int maxAttempts;
+
+    // Tiempo que una fila reclamada queda oculta para las demas replicas mientras se entrega
+    @Value("${capacity.outbox.claim-lease:1m}")
+    private Duration claimLease;
+
+    // Procesa lotes hasta vaciar lo pendiente; los lotes fallidos quedan diferidos y no se releen en la misma pasada
+    @Override
+    public Mono<Integer> relayTechnologyDeletions() {
+        return Mono.defer(this::relayNextBatch)
+                .repeat()
+                .takeUntil(processed -> processed < Math.max(1, batchSize))
+                .reduce(0, Integer::sum);
+    }
+
+    private Mono<Integer> relayNextBatch() {
+        return technologyOutboxPersistencePort.claimPendingDeletions(Math.max(1, batchSize), claimLease)
+                .collectList()
+                .flatMap(deletions -> {
+                    if (deletions.isEmpty()) {
+                        return Mono.just(0);
+                    }
+                    // Las que volvieron a usarse ya no son huerfanas: se descartan sin llamar al servicio
+                    List<Long> discarded = deletions.stream()
+                            .filter(TechnologyDeletion::isReferenced)
+                            .map(TechnologyDeletion::getId)
+                            .toList();
+                    List<TechnologyDeletion> pending = deletions.stream()
+                            .filter(deletion -> !deletion.isReferenced())
+                            .toList();
+
+                    return removeDeletions(discarded)
+                            .then(deliver(pending))
+                            .thenReturn(deletions.size());
+                });
+    }
+
+    private Mono<Void> deliver(List<TechnologyDeletion> deletions) {
+        if (deletions.isEmpty()) {
+            return Mono.empty();
+        }
+        List<Long> technologyIds = deletions.stream()
+                .map(TechnologyDeletion::getTechnologyId)
+                .distinct()
+                .toList();
+
+        // La causa queda en el log: una caida o un 4xx/5xx no deben confundirse con un rechazo del servicio
+        return technologyClientPort.deleteTechnolgies(technologyIds)
+                .defaultIfEmpty(false)
+                .doOnNext(deleted -> {
+                    if (!Boolean.TRUE.equals(deleted)) {
+                        log.warn("El servicio de tecnologias no confirmo el borrado de {}; se reintentara", technologyIds);
+                    }
+                })
+                .doOnError(error -> log.warn("Error entregando el borrado de las tecnologias {}; se reintentara",
+                        technologyIds, error))
+                .onErrorReturn(false)
+                .flatMap(deleted -> Boolean.TRUE.equals(deleted)
+                        ? removeDeletions(deletions.stream().map(TechnologyDeletion::getId).toList())
+                        : scheduleRetries(deletions));
+    }
+
+    // Cada fila se difiere segun sus propios intentos; la que agota max-attempts deja de reintentarse
+    private Mono<Void> scheduleRetries(List<TechnologyDeletion> deletions) {
+        Map<Boolean, List<TechnologyDeletion>> byExhausted = deletions.stream()
+                .collect(Collectors.partitioningBy(deletion -> deletion.getAttempts() + 1 >= Math.max(1, maxAttempts)));
+        List<Long> failedIds = byExhausted.get(true).stream().map(TechnologyDeletion::getId).toList();
+        Map<Integer, List<Long>> idsByAttempts = byExhausted.get(false).stream()
+                .collect(Collectors.groupingBy(TechnologyDeletion::getAttempts,
+                        Collectors.mapping(TechnologyDeletion::getId, Collectors.toList())));
+
+        Mono<Void> markFailed = failedIds.isEmpty()
+                ? Mono.empty()
+                : technologyOutboxPersistencePort.markFailed(failedIds);
+
+        return markFailed
+                .thenMany(Flux.fromIterable(idsByAttempts.entrySet())
+                        .concatMap(entry -> technologyOutboxPersistencePort.scheduleRetry(
+                                entry.getValue(), backoff(entry.getKey()))))
+                .then();
+    }
+
+    private Mono<Void> removeDeletions(List<Long> ids) {
+        return ids.isEmpty() ? Mono.empty() : technologyOutboxPersistencePort.removeDeletions(ids);
+    }
+
+    Duration backoff(int attempts) {
+        // 2^attempts acotado para no desbordar; el tope real lo pone maxBackoff
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
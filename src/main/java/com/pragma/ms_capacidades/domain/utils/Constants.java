@@ -8,6 +8,12 @@ public class Constants {
     public static final String TECHNOLOGY_NOT_EXIST = "Tecnología no existe";
     public static final String CAPACITY_ALREADY_EXISTS = "Capacidad ya existe";
     public static final String INVALID_TECH_SIZE = "La capacidad debe tener entre 3 y 20 tecnologias";
+    public static final String INVALID_CURSOR = "Cursor de paginacion invalido";
+    public static final String CAPACITY_NOT_SAVED = "No fue posible guardar la capacidad";
+    public static final String CAPACITIES_NOT_DELETED = "No fue posible eliminar las capacidades del bloque";
+    public static final String INVALID_BINARY_IDS = "El cuerpo binario debe ser una secuencia de ids de 8 bytes (big-endian)";
+    public static final String TOO_MANY_IDS = "El cuerpo admite como maximo 100000 ids";
+    public static final String INVALID_FIELDS = "Campos no validos. Solo se permiten: id, name, description, technologyCount, technologies";
 
 
 }
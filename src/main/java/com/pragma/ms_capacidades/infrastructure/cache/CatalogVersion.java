@@ -0,0 +1,30 @@
+package com.pragma.ms_capacidades.infrastructure.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Version en memoria del catalogo: cada escritura la incrementa y el ETag de las lecturas se deriva de ella.
+// El epoch distingue reinicios; la ventana max-age acota cuanto puede durar un ETag cuando el cambio
+// llega por otra instancia o por el servicio de tecnologias
+@Component
+public class CatalogVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+
+    @Value("${capacity.etag.max-age:30s}")
+    private Duration maxAge;
+
+    public void bump() {
+        version.incrementAndGet();
+    }
+
+    public String etag() {
+        long maxAgeMillis = maxAge.toMillis();
+        long window = maxAgeMillis > 0 ? System.currentTimeMillis() / maxAgeMillis : 0;
+        return "\"" + epoch + "-" + version.get() + "-" + window + "\"";
+    }
+}
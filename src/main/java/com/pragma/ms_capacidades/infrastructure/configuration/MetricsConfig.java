@@ -0,0 +1,86 @@
+package com.pragma.ms_capacidades.infrastructure.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.pragma.ms_capacidades.infrastructure.input.rest.dto.TechnologyResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.Scannable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+// Las metricas de HTTP (servidor y cliente) y del pool de R2DBC las registra Spring Boot Actuator;
+// aqui se agregan la cache de tecnologias y los schedulers de Reactor
+@Configuration
+public class MetricsConfig {
+
+    private static final String SCHEDULER_METRICS_KEY = "capacity.scheduler.metrics";
+
+    @Bean
+    public MeterBinder technologyCacheMetrics(Cache<Long, TechnologyResponse> technologyCache) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, technologyCache, "technologies");
+    }
+
+    // Se instala antes de levantar el contexto: los schedulers se crean al primer uso y conservan
+    // sus executors, asi que un decorador registrado despues no los instrumentaria.
+    // El registro global recibe los registros de Actuator (Prometheus) al iniciar
+    public static void instrumentReactorSchedulers() {
+        Schedulers.addExecutorServiceDecorator(SCHEDULER_METRICS_KEY, schedulerMetrics(Metrics.globalRegistry));
+    }
+
+    // boundedElastic crea y descarta workers continuamente: las metricas se agregan por scheduler (tag name fijo)
+    // sobre los executors vivos en lugar de registrar medidores por executor
+    static BiFunction<Scheduler, ScheduledExecutorService, ScheduledExecutorService> schedulerMetrics(
+            MeterRegistry registry) {
+        Map<String, Set<ThreadPoolExecutor>> executorsByScheduler = new ConcurrentHashMap<>();
+        return (scheduler, service) -> {
+            if (service instanceof ThreadPoolExecutor executor) {
+                executorsByScheduler.computeIfAbsent(Scannable.from(scheduler).name(), name -> {
+                    Set<ThreadPoolExecutor> executors = Collections.synchronizedSet(
+                            Collections.newSetFromMap(new WeakHashMap<>()));
+                    registerSchedulerGauges(registry, name, executors);
+                    return executors;
+                }).add(executor);
+            }
+            return service;
+        };
+    }
+
+    private static void registerSchedulerGauges(MeterRegistry registry, String name, Set<ThreadPoolExecutor> executors) {
+        Tags tags = Tags.of("name", name);
+        Gauge.builder("reactor.executor.pool.size", executors, live -> sum(live, ThreadPoolExecutor::getPoolSize))
+                .tags(tags)
+                .register(registry);
+        Gauge.builder("reactor.executor.active", executors, live -> sum(live, ThreadPoolExecutor::getActiveCount))
+                .tags(tags)
+                .register(registry);
+        Gauge.builder("reactor.executor.queued", executors, live -> sum(live, executor -> executor.getQueue().size()))
+                .tags(tags)
+                .register(registry);
+    }
+
+    // Los executors de workers ya descartados estan apagados y se ignoran hasta que el GC los retire
+    private static double sum(Set<ThreadPoolExecutor> executors, ToIntFunction<ThreadPoolExecutor> value) {
+        synchronized (executors) {
+            return executors.stream()
+                    .filter(executor -> !executor.isShutdown())
+                    .mapToInt(value)
+                    .sum();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.pragma.ms_capacidades.infrastructure.configuration;
+
+import com.pragma.ms_capacidades.domain.spi.ICapacityPersistencePort;
+import com.pragma.ms_capacidades.domain.spi.TechnologyClientPort;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.stream.Stream;
+
+// Latencia y errores por metodo de los puertos de salida (BD y servicio de tecnologias).
+// El tiempo se mide por suscripcion, no al construir el Mono/Flux
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class PortMetricsAspect {
+
+    static final String CALLS_METRIC = "capacity.port.calls";
+    static final String ERRORS_METRIC = "capacity.port.errors";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(* com.pragma.ms_capacidades.domain.spi.*.*(..))")
+    public Object timePortCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        Tags tags = Tags.of(
+                "port", portName(joinPoint.getTarget()),
+                "method", joinPoint.getSignature().getName());
+
+        Object result = joinPoint.proceed();
+        if (result instanceof Mono<?> mono) {
+            return Mono.defer(() -> {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                return mono
+                        .doOnError(error -> countError(tags, error))
+                        .doFinally(signal -> stop(sample, tags, signal));
+            });
+        }
+        if (result instanceof Flux<?> flux) {
+            return Flux.defer(() -> {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                return flux
+                        .doOnError(error -> countError(tags, error))
+                        .doFinally(signal -> stop(sample, tags, signal));
+            });
+        }
+        return result;
+    }
+
+    private void stop(Timer.Sample sample, Tags tags, SignalType signal) {
+        String outcome = switch (signal) {
+            case ON_COMPLETE -> "success";
+            case ON_ERROR -> "error";
+            default -> "cancelled";
+        };
+        sample.stop(Timer.builder(CALLS_METRIC)
+                .tags(tags)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private void countError(Tags tags, Throwable error) {
+        meterRegistry.counter(ERRORS_METRIC, tags.and("exception", error.getClass().getSimpleName()))
+                .increment();
+    }
+
+    private String portName(Object target) {
+        return Stream.of(ICapacityPersistencePort.class, TechnologyClientPort.class)
+                .filter(port -> port.isInstance(target))
+                .map(Class::getSimpleName)
+                .findFirst()
+                .orElse(target.getClass().getSimpleName());
+    }
+}
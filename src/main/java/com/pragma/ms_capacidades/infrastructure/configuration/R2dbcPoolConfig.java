@@ -0,0 +1,58 @@
+package com.pragma.ms_capacidades.infrastructure.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+// El pool lo crea Spring Boot a partir de spring.r2dbc.pool.*; aqui se agrega la metrica de espera
+// por conexion y el precalentamiento hasta initial-size al arrancar
+@Slf4j
+@Configuration
+public class R2dbcPoolConfig {
+
+    @Value("${capacity.r2dbc.warm-up:true}")
+    private boolean warmUp;
+
+    @Bean
+    public static BeanPostProcessor connectionPoolAcquireTimer(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ConnectionPool pool) {
+                    return new TimedConnectionFactory(pool, meterRegistry.getObject(), beanName);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpConnectionPool(ApplicationReadyEvent event) {
+        ConnectionPool pool = extractPool(event.getApplicationContext().getBean(ConnectionFactory.class));
+        if (!warmUp || pool == null) {
+            return;
+        }
+        pool.warmup().subscribe(
+                created -> log.info("Pool R2DBC precalentado con {} conexiones", created),
+                error -> log.warn("No se pudo precalentar el pool R2DBC: {}", error.getMessage()));
+    }
+
+    private ConnectionPool extractPool(Object candidate) {
+        if (candidate instanceof ConnectionPool pool) {
+            return pool;
+        }
+        if (candidate instanceof Wrapped<?> wrapped) {
+            return extractPool(wrapped.unwrap());
+        }
+        return null;
+    }
+}
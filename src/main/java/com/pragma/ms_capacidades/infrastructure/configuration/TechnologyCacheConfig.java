@@ -0,0 +1,26 @@
+package com.pragma.ms_capacidades.infrastructure.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pragma.ms_capacidades.infrastructure.input.rest.dto.TechnologyResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class TechnologyCacheConfig {
+
+    // Cache por id de tecnologia: tamaño acotado, expiracion por TTL y desalojo W-TinyLFU de Caffeine
+    @Bean
+    public Cache<Long, TechnologyResponse> technologyCache(
+            @Value("${services.technology.cache.max-size:10000}") long maxSize,
+            @Value("${services.technology.cache.ttl:10m}") Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
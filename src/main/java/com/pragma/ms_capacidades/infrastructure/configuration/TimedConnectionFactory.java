@@ -0,0 +1,69 @@
+package com.pragma.ms_capacidades.infrastructure.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+// Mide cuanto espera cada consumidor por una conexion del pool (espera en cola + creacion si hace falta).
+// Implementa Wrapped para que Actuator siga encontrando el ConnectionPool y publique sus gauges
+public class TimedConnectionFactory implements ConnectionFactory, Wrapped<ConnectionPool>, Disposable {
+
+    static final String ACQUIRE_METRIC = "r2dbc.pool.acquire";
+
+    private final ConnectionPool pool;
+    private final MeterRegistry meterRegistry;
+    private final Timer acquireSuccess;
+    private final Timer acquireFailure;
+
+    public TimedConnectionFactory(ConnectionPool pool, MeterRegistry meterRegistry, String name) {
+        this.pool = pool;
+        this.meterRegistry = meterRegistry;
+        this.acquireSuccess = acquireTimer(name, "success");
+        this.acquireFailure = acquireTimer(name, "error");
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return pool.create()
+                    .doOnNext(connection -> sample.stop(acquireSuccess))
+                    .doOnError(error -> sample.stop(acquireFailure));
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return pool.getMetadata();
+    }
+
+    @Override
+    public ConnectionPool unwrap() {
+        return pool;
+    }
+
+    @Override
+    public void dispose() {
+        pool.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return pool.isDisposed();
+    }
+
+    private Timer acquireTimer(String name, String outcome) {
+        return Timer.builder(ACQUIRE_METRIC)
+                .description("Time waited to acquire a connection from the pool")
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -1,17 +1,31 @@
 package com.pragma.ms_capacidades.infrastructure.configuration;
 
+import io.netty.channel.ChannelOption;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
 
+    // El builder de Spring Boot trae la instrumentacion de Micrometer (http.client.requests).
+    // Con timeouts una llamada colgada falla solo su peticion en vez de ocupar una ranura del cargador por lotes
     @Bean
-    public WebClient technologyWebClient(@Value("${services.technology.base-url}") String baseUrl) {
-        return WebClient.builder()
+    public WebClient technologyWebClient(WebClient.Builder webClientBuilder,
+                                         @Value("${services.technology.base-url}") String baseUrl,
+                                         @Value("${services.technology.connect-timeout:2s}") Duration connectTimeout,
+                                         @Value("${services.technology.response-timeout:3s}") Duration responseTimeout) {
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(connectTimeout.toMillis()))
+                .responseTimeout(responseTimeout);
+        return webClientBuilder
                 .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .build();
     }
 }
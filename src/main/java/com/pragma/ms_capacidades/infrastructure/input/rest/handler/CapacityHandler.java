@@ -1,23 +1,47 @@
 package com.pragma.ms_capacidades.infrastructure.input.rest.handler;
 
+import com.pragma.ms_capacidades.application.dto.CapacityBatchResponse;
+import com.pragma.ms_capacidades.application.dto.CapacityDeleteChunkResponse;
 import com.pragma.ms_capacidades.application.dto.CapacityRequest;
 import com.pragma.ms_capacidades.application.dto.CapacityResponse;
+import com.pragma.ms_capacidades.application.dto.PageResponse;
 import com.pragma.ms_capacidades.application.helper.ICapacityHelper;
+import com.pragma.ms_capacidades.domain.exception.BadRequestException;
+import com.pragma.ms_capacidades.infrastructure.cache.CatalogVersion;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyExtractors;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.pragma.ms_capacidades.domain.utils.Constants.INVALID_BINARY_IDS;
+import static com.pragma.ms_capacidades.domain.utils.Constants.INVALID_FIELDS;
+import static com.pragma.ms_capacidades.domain.utils.Constants.TOO_MANY_IDS;
 
 @Component
 @RequiredArgsConstructor
 public class CapacityHandler {
 
+    // Tope de ids por cuerpo para cualquier formato: acota tambien el conjunto que usa distinct() al deduplicar
+    static final int MAX_BODY_IDS = 100_000;
+
     private final ICapacityHelper capacityHelper;
+    private final CatalogVersion catalogVersion;
 
     public Mono<ServerResponse> createCapacity(ServerRequest request) {
         return request.bodyToMono(CapacityRequest.class)
@@ -29,50 +53,118 @@ public class CapacityHandler {
                 );
     }
 
+    public Mono<ServerResponse> createCapacities(ServerRequest request) {
+        // El cuerpo NDJSON se decodifica en streaming y cada resultado se escribe en cuanto esta listo
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(capacityHelper.createCapacities(request.bodyToFlux(CapacityRequest.class)),
+                        CapacityBatchResponse.class);
+    }
+
     public Mono<ServerResponse> listCapacities(ServerRequest request) {
+        // Si el catalogo no cambio desde el ETag del cliente se responde 304 sin consultar nada
+        String etag = catalogVersion.etag();
+        if (isNotModified(request, etag)) {
+            return notModified(etag);
+        }
 
         int page = Integer.parseInt(request.queryParam("page").orElse("0"));
         int size = Integer.parseInt(request.queryParam("size").orElse("10"));
         String sortBy = request.queryParam("sortBy").orElse("name");
         String direction = request.queryParam("direction").orElse("asc");
+        Integer concurrency = request.queryParam("concurrency").map(Integer::valueOf).orElse(null);
+        Set<String> fields = request.queryParam("fields").map(CapacityHandler::parseFields).orElse(Set.of());
+        Optional<String> cursor = request.queryParam("cursor");
+
+        Mono<PageResponse<CapacityResponse>> pageResponseMono = cursor.isPresent()
+                ? capacityHelper.getCapacitiesByCursor(cursor.get(), size, concurrency, fields)
+                : capacityHelper.getCapacities(page, size, sortBy, direction, concurrency, fields);
 
-        return capacityHelper
-                .getCapacities(page, size, sortBy, direction)
+        return pageResponseMono
                 .flatMap(pageResponse ->
                         ServerResponse.ok()
                                 .contentType(MediaType.APPLICATION_JSON)
+                                .eTag(etag)
                                 .bodyValue(pageResponse)
                 );
     }
 
+    public Mono<ServerResponse> exportCapacities(ServerRequest request) {
+        MediaType mediaType = request.headers().accept().contains(MediaType.TEXT_EVENT_STREAM)
+                ? MediaType.TEXT_EVENT_STREAM
+                : MediaType.APPLICATION_NDJSON;
+
+        return ServerResponse.ok()
+                .contentType(mediaType)
+                .body(capacityHelper.exportCapacities(), CapacityResponse.class);
+    }
+
     public Mono<ServerResponse> getCapacitiesByIds(ServerRequest request) {
+        String etag = catalogVersion.etag();
+        if (isNotModified(request, etag)) {
+            return notModified(etag);
+        }
 
         List<Long> ids = request.queryParam("ids")
-                .map(value ->
-                        Arrays.stream(value.split(","))
-                                .map(String::trim)
-                                .map(Long::valueOf)
-                                .toList()
-                )
+                .map(CapacityHandler::parseIds)
                 .orElseThrow(() -> new IllegalArgumentException("ids es requerido"));
+        Integer concurrency = request.queryParam("concurrency").map(Integer::valueOf).orElse(null);
+        Set<String> fields = request.queryParam("fields").map(CapacityHandler::parseFields).orElse(Set.of());
 
         return ServerResponse.ok()
                 .contentType(MediaType.APPLICATION_JSON)
-                .body(capacityHelper.getCapacitiesByIds(ids), CapacityResponse.class);
+                .eTag(etag)
+                .body(capacityHelper.getCapacitiesByIds(ids, concurrency, fields), CapacityResponse.class);
+    }
+
+    public Mono<ServerResponse> streamCapacitiesByIds(ServerRequest request) {
+        Integer concurrency = request.queryParam("concurrency").map(Integer::valueOf).orElse(null);
+        Set<String> fields = request.queryParam("fields").map(CapacityHandler::parseFields).orElse(Set.of());
+        MediaType mediaType = request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+                ? MediaType.APPLICATION_NDJSON
+                : MediaType.APPLICATION_JSON;
+
+        // Con Content-Length un cuerpo binario demasiado grande se rechaza antes de empezar a responder
+        if (isBinary(request)
+                && request.headers().contentLength().orElse(0L) > (long) MAX_BODY_IDS * Long.BYTES) {
+            return Mono.error(new BadRequestException(TOO_MANY_IDS));
+        }
+
+        return ServerResponse.ok()
+                .contentType(mediaType)
+                .body(capacityHelper.streamCapacitiesByIds(readIds(request), concurrency, fields), CapacityResponse.class);
+    }
+
+    public Mono<ServerResponse> getCapacitiesByTechnology(ServerRequest request) {
+        String etag = catalogVersion.etag();
+        if (isNotModified(request, etag)) {
+            return notModified(etag);
+        }
+
+        Long technologyId = request.queryParam("technologyId")
+                .map(Long::valueOf)
+                .orElseThrow(() -> new IllegalArgumentException("technologyId es requerido"));
+        int size = Integer.parseInt(request.queryParam("size").orElse("10"));
+        String cursor = request.queryParam("cursor").orElse(null);
+        Integer concurrency = request.queryParam("concurrency").map(Integer::valueOf).orElse(null);
+        Set<String> fields = request.queryParam("fields").map(CapacityHandler::parseFields).orElse(Set.of());
+
+        return capacityHelper.getCapacitiesByTechnology(technologyId, cursor, size, concurrency, fields)
+                .flatMap(pageResponse ->
+                        ServerResponse.ok()
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .eTag(etag)
+                                .bodyValue(pageResponse)
+                );
     }
 
     public Mono<ServerResponse> deleteCapacities(ServerRequest request) {
         List<Long> ids = request.queryParam("ids")
-                .map(value ->
-                        Arrays.stream(value.split(","))
-                                .map(String::trim)
-                                .map(Long::valueOf)
-                                .toList()
-                )
+                .map(CapacityHandler::parseIds)
                 .orElseThrow(() -> new IllegalArgumentException("ids es requerido"));
 
+        // Un fallo de base de datos o de la transaccion se propaga como 5xx en vez de responder 200 con false
         return capacityHelper.deleteCapacities(ids)
-                .onErrorReturn(false)
                 .flatMap(result ->
                         ServerResponse.ok()
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -80,4 +172,105 @@ public class CapacityHandler {
                 );
     }
 
+    public Mono<ServerResponse> deleteCapacitiesInChunks(ServerRequest request) {
+        // Los ids (arreglo JSON o NDJSON) se leen en streaming y cada bloque informa su progreso al terminar
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(capacityHelper.deleteCapacitiesInChunks(request.bodyToFlux(Long.class)),
+                        CapacityDeleteChunkResponse.class);
+    }
+
+    // Arreglo JSON / NDJSON se decodifica en streaming; application/octet-stream es una secuencia de int64 big-endian
+    // que tambien se decodifica bloque a bloque, sin juntar el cuerpo completo
+    private Flux<Long> readIds(ServerRequest request) {
+        Flux<Long> ids = isBinary(request)
+                ? decodeBinaryIds(request.body(BodyExtractors.toDataBuffers()))
+                : request.bodyToFlux(Long.class);
+        return limitIds(ids);
+    }
+
+    private static boolean isBinary(ServerRequest request) {
+        return request.headers().contentType()
+                .filter(MediaType.APPLICATION_OCTET_STREAM::isCompatibleWith)
+                .isPresent();
+    }
+
+    static Flux<Long> limitIds(Flux<Long> ids) {
+        return ids.index((position, id) -> {
+            if (position >= MAX_BODY_IDS) {
+                throw new BadRequestException(TOO_MANY_IDS);
+            }
+            return id;
+        });
+    }
+
+    // Un id puede quedar partido entre dos buffers: los bytes sobrantes se guardan y se completan con el siguiente
+    static Flux<Long> decodeBinaryIds(Flux<DataBuffer> body) {
+        return Flux.defer(() -> {
+            ByteBuffer partial = ByteBuffer.allocate(Long.BYTES);
+            return body
+                    .concatMapIterable(buffer -> {
+                        byte[] bytes = new byte[buffer.readableByteCount()];
+                        buffer.read(bytes);
+                        DataBufferUtils.release(buffer);
+                        return readBinaryIds(ByteBuffer.wrap(bytes), partial);
+                    })
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                    .concatWith(Mono.defer(() -> partial.position() == 0
+                            ? Mono.empty()
+                            : Mono.error(new BadRequestException(INVALID_BINARY_IDS))));
+        });
+    }
+
+    static List<Long> readBinaryIds(ByteBuffer chunk, ByteBuffer partial) {
+        List<Long> ids = new ArrayList<>(chunk.remaining() / Long.BYTES + 1);
+        if (partial.position() > 0) {
+            while (partial.hasRemaining() && chunk.hasRemaining()) {
+                partial.put(chunk.get());
+            }
+            if (partial.hasRemaining()) {
+                return ids;
+            }
+            ids.add(partial.flip().getLong());
+            partial.clear();
+        }
+        while (chunk.remaining() >= Long.BYTES) {
+            ids.add(chunk.getLong());
+        }
+        partial.put(chunk);
+        return ids;
+    }
+
+    // If-None-Match usa comparacion debil: se acepta la etiqueta con o sin prefijo W/ y el comodin *
+    private boolean isNotModified(ServerRequest request, String etag) {
+        return request.headers().header(HttpHeaders.IF_NONE_MATCH).stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(String::trim)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag));
+    }
+
+    private Mono<ServerResponse> notModified(String etag) {
+        return ServerResponse.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .build();
+    }
+
+    static List<Long> parseIds(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .map(Long::valueOf)
+                .toList();
+    }
+
+    static Set<String> parseFields(String value) {
+        Set<String> fields = Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toSet());
+        if (!CapacityResponse.SELECTABLE_FIELDS.containsAll(fields)) {
+            throw new BadRequestException(INVALID_FIELDS);
+        }
+        return fields;
+    }
+
 }
@@ -4,6 +4,7 @@ import com.pragma.ms_capacidades.application.dto.CapacityRequest;
 import com.pragma.ms_capacidades.infrastructure.input.rest.handler.CapacityHandler;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
@@ -44,6 +45,27 @@ public class CapacityRouter {
                     )
             ),
 
+            @RouterOperation(
+                    path = "/api/v1/capacity/batch",
+                    method = RequestMethod.POST,
+                    beanClass = CapacityHandler.class,
+                    beanMethod = "createCapacities",
+                    operation = @Operation(
+                            operationId = "createCapacities",
+                            summary = "Registrar capacidades en bloque (application/x-ndjson)",
+                            requestBody = @RequestBody(
+                                    required = true,
+                                    content = @Content(
+                                            mediaType = "application/x-ndjson",
+                                            schema = @Schema(implementation = CapacityRequest.class)
+                                    )
+                            ),
+                            responses = {
+                                    @ApiResponse(responseCode = "200", description = "Resultado por capacidad en NDJSON")
+                            }
+                    )
+            ),
+
             @RouterOperation(
                     path = "/api/v1/capacity",
                     method = RequestMethod.GET,
@@ -56,13 +78,29 @@ public class CapacityRouter {
                                     @Parameter(name = "page", description = "Numero de la pagina"),
                                     @Parameter(name = "size", description = "Cantidad de registros por pagina"),
                                     @Parameter(name = "direction", description = "Orden de los registros"),
-                                    @Parameter(name = "sortBy", description = "Ordenar por")
+                                    @Parameter(name = "sortBy", description = "Ordenar por"),
+                                    @Parameter(name = "cursor", description = "Cursor opaco (nextCursor) para paginar por clave en lugar de page"),
+                                    @Parameter(name = "concurrency", description = "Maximo de llamadas simultaneas al servicio de tecnologias"),
+                                    @Parameter(name = "fields", description = "Campos a devolver separados por coma (id, name, description, technologyCount, technologies); las tecnologias solo se consultan si se piden")
                             },
                             responses = {
                                     @ApiResponse(responseCode = "200", description = "Lista de capacidades")
                             }
                     )
             ),
+            @RouterOperation(
+                    path = "/api/v1/capacity/export",
+                    method = RequestMethod.GET,
+                    beanClass = CapacityHandler.class,
+                    beanMethod = "exportCapacities",
+                    operation = @Operation(
+                            operationId = "exportCapacities",
+                            summary = "Exportar el catalogo completo de capacidades (NDJSON o SSE)",
+                            responses = {
+                                    @ApiResponse(responseCode = "200", description = "Capacidades con sus ids de tecnologias")
+                            }
+                    )
+            ),
             @RouterOperation(
                     path = "/api/v1/capacity/byIds",
                     method = RequestMethod.GET,
@@ -72,13 +110,59 @@ public class CapacityRouter {
                             operationId = "getCapacitiesByIds",
                             summary = "Obtener capacidades por ids",
                             parameters = {
-                                    @Parameter(name = "ids", description = "Lista de ids de capacidades", required = true)
+                                    @Parameter(name = "ids", description = "Lista de ids de capacidades", required = true),
+                                    @Parameter(name = "concurrency", description = "Maximo de llamadas simultaneas al servicio de tecnologias"),
+                                    @Parameter(name = "fields", description = "Campos a devolver separados por coma (id, name, description, technologyCount, technologies); las tecnologias solo se consultan si se piden")
                             },
                             responses = {
                                     @ApiResponse(responseCode = "200", description = "Lista de capacidades")
                             }
                     )
             ),
+            @RouterOperation(
+                    path = "/api/v1/capacity/byIds",
+                    method = RequestMethod.POST,
+                    beanClass = CapacityHandler.class,
+                    beanMethod = "streamCapacitiesByIds",
+                    operation = @Operation(
+                            operationId = "streamCapacitiesByIds",
+                            summary = "Obtener muchas capacidades por ids (arreglo JSON, NDJSON o int64 big-endian en application/octet-stream)",
+                            parameters = {
+                                    @Parameter(name = "concurrency", description = "Maximo de llamadas simultaneas al servicio de tecnologias"),
+                                    @Parameter(name = "fields", description = "Campos a devolver separados por coma (id, name, description, technologyCount, technologies); las tecnologias solo se consultan si se piden")
+                            },
+                            requestBody = @RequestBody(
+                                    required = true,
+                                    content = @Content(
+                                            mediaType = "application/json",
+                                            array = @ArraySchema(schema = @Schema(implementation = Long.class))
+                                    )
+                            ),
+                            responses = {
+                                    @ApiResponse(responseCode = "200", description = "Capacidades en el orden en que se resuelven (JSON o NDJSON segun Accept)")
+                            }
+                    )
+            ),
+            @RouterOperation(
+                    path = "/api/v1/capacity/byTechnology",
+                    method = RequestMethod.GET,
+                    beanClass = CapacityHandler.class,
+                    beanMethod = "getCapacitiesByTechnology",
+                    operation = @Operation(
+                            operationId = "getCapacitiesByTechnology",
+                            summary = "Listar las capacidades que usan una tecnologia",
+                            parameters = {
+                                    @Parameter(name = "technologyId", description = "Id de la tecnologia", required = true),
+                                    @Parameter(name = "size", description = "Cantidad de registros por pagina"),
+                                    @Parameter(name = "cursor", description = "nextCursor de la pagina anterior (id de la ultima capacidad)"),
+                                    @Parameter(name = "concurrency", description = "Maximo de llamadas simultaneas al servicio de tecnologias"),
+                                    @Parameter(name = "fields", description = "Campos a devolver separados por coma (id, name, description, technologyCount, technologies); las tecnologias solo se consultan si se piden")
+                            },
+                            responses = {
+                                    @ApiResponse(responseCode = "200", description = "Pagina de capacidades ordenada por id")
+                            }
+                    )
+            ),
             @RouterOperation(
                     path = "/api/v1/capacity",
                     method = RequestMethod.DELETE,
@@ -94,13 +178,38 @@ public class CapacityRouter {
                                     @ApiResponse(responseCode = "200", description = "Capacidades eliminadas")
                             }
                     )
+            ),
+            @RouterOperation(
+                    path = "/api/v1/capacity/delete",
+                    method = RequestMethod.POST,
+                    beanClass = CapacityHandler.class,
+                    beanMethod = "deleteCapacitiesInChunks",
+                    operation = @Operation(
+                            operationId = "deleteCapacitiesInChunks",
+                            summary = "Eliminar capacidades en bloques (arreglo JSON o NDJSON de ids en el cuerpo)",
+                            requestBody = @RequestBody(
+                                    required = true,
+                                    content = @Content(
+                                            mediaType = "application/json",
+                                            array = @ArraySchema(schema = @Schema(implementation = Long.class))
+                                    )
+                            ),
+                            responses = {
+                                    @ApiResponse(responseCode = "200", description = "Progreso por bloque en NDJSON")
+                            }
+                    )
             )
     })
     public RouterFunction<ServerResponse> capacityRoutes(CapacityHandler handler) {
 
         return route(POST("/api/v1/capacity"), handler::createCapacity)
+                .andRoute(POST("/api/v1/capacity/batch"), handler::createCapacities)
                 .andRoute(GET("/api/v1/capacity"), handler::listCapacities)
+                .andRoute(GET("/api/v1/capacity/export"), handler::exportCapacities)
                 .andRoute(GET("/api/v1/capacity/byIds"), handler::getCapacitiesByIds)
-                .andRoute(DELETE("/api/v1/capacity"), handler::deleteCapacities);
+                .andRoute(POST("/api/v1/capacity/byIds"), handler::streamCapacitiesByIds)
+                .andRoute(GET("/api/v1/capacity/byTechnology"), handler::getCapacitiesByTechnology)
+                .andRoute(DELETE("/api/v1/capacity"), handler::deleteCapacities)
+                .andRoute(POST("/api/v1/capacity/delete"), handler::deleteCapacitiesInChunks);
     }
 }
@@ -0,0 +1,25 @@
+package com.pragma.ms_capacidades.infrastructure.input.scheduler;
+
+import com.pragma.ms_capacidades.domain.api.ICapacityServicePort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Recalcula capacities.technology_count a partir de capacity_technology y corrige las filas desalineadas
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TechnologyCountRepairJob {
+
+    private final ICapacityServicePort capacityServicePort;
+
+    @Scheduled(cron = "${capacity.technology-count.repair-cron:0 0 3 * * *}")
+    public void repairTechnologyCounts() {
+        capacityServicePort.rebuildTechnologyCounts()
+                .subscribe(
+                        repaired -> log.info("technology_count reparado en {} capacidades", repaired),
+                        error -> log.error("Error reparando technology_count", error)
+                );
+    }
+}
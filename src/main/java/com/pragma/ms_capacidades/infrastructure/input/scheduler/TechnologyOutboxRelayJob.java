@@ -0,0 +1,36 @@
+package com.pragma.ms_capacidades.infrastructure.input.scheduler;
+
+import com.pragma.ms_capacidades.domain.api.ITechnologyOutboxServicePort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Empuja al servicio de tecnologias los borrados pendientes del outbox; una sola pasada a la vez por instancia
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TechnologyOutboxRelayJob {
+
+    private final ITechnologyOutboxServicePort technologyOutboxServicePort;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(fixedDelayString = "${capacity.outbox.relay-interval-ms:2000}")
+    public void relayTechnologyDeletions() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        technologyOutboxServicePort.relayTechnologyDeletions()
+                .doFinally(signal -> running.set(false))
+                .subscribe(
+                        processed -> {
+                            if (processed > 0) {
+                                log.info("Outbox de tecnologias: {} borrados procesados", processed);
+                            }
+                        },
+                        error -> log.error("Error procesando el outbox de tecnologias", error)
+                );
+    }
+}
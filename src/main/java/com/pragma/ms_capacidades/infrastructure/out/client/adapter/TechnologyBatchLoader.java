@@ -0,0 +1,132 @@
+package com.pragma.ms_capacidades.infrastructure.out.client.adapter;
+
+import com.pragma.ms_capacidades.infrastructure.input.rest.dto.TechnologyResponse;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+// Agrupa las consultas por ids que llegan dentro de una ventana corta en llamadas remotas de a lo sumo
+// maxBatchSize ids distintos y reparte el resultado a cada suscriptor
+@Slf4j
+public class TechnologyBatchLoader {
+
+    private final Sinks.Many<PendingLoad> pendingLoads;
+    private final Function<List<Long>, Flux<TechnologyResponse>> fetcher;
+    private final int maxBatchSize;
+    private final int maxConcurrency;
+    private final Duration fetchTimeout;
+    private final Disposable subscription;
+
+    public TechnologyBatchLoader(Function<List<Long>, Flux<TechnologyResponse>> fetcher, Duration window,
+                                 int maxBatchSize, int maxConcurrency, int maxPending, Duration fetchTimeout) {
+        this.fetcher = fetcher;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.fetchTimeout = fetchTimeout;
+        // Cola acotada: si el servicio de tecnologias no responde las peticiones nuevas se rechazan en vez de acumularse
+        this.pendingLoads = Sinks.many().unicast()
+                .onBackpressureBuffer(Queues.<PendingLoad>get(Math.max(1, maxPending)).get());
+        // fairBackpressure: si todas las llamadas estan ocupadas el lote espera en vez de desbordar con OverflowException.
+        // bufferTimeout limita peticiones, no ids: cada ventana se reparte despues en grupos acotados por ids.
+        // Cada ventana y cada grupo resuelven sus propios errores para que un fallo no termine el pipeline compartido
+        this.subscription = pendingLoads.asFlux()
+                .bufferTimeout(this.maxBatchSize, window, true)
+                .concatMapIterable(this::groupByIdCount)
+                .flatMap(this::dispatch, this.maxConcurrency)
+                .subscribe(null, error -> log.error("El cargador por lotes de tecnologias se detuvo", error));
+    }
+
+    public Flux<TechnologyResponse> load(List<Long> ids) {
+        return Mono.defer(() -> {
+                    if (ids == null) {
+                        return Mono.<Map<Long, TechnologyResponse>>error(
+                                new IllegalArgumentException("La lista de ids de tecnologias es obligatoria"));
+                    }
+                    Sinks.One<Map<Long, TechnologyResponse>> result = Sinks.one();
+                    Sinks.EmitResult emitResult;
+                    // El sink unicast no admite emisiones concurrentes: se serializan en vez de reintentar en espera activa
+                    synchronized (pendingLoads) {
+                        emitResult = pendingLoads.tryEmitNext(new PendingLoad(List.copyOf(ids), result));
+                    }
+                    if (emitResult.isFailure()) {
+                        return Mono.<Map<Long, TechnologyResponse>>error(new IllegalStateException(
+                                "El cargador de tecnologias no acepta peticiones: " + emitResult));
+                    }
+                    return result.asMono();
+                })
+                .flatMapIterable(technologiesById -> ids.stream()
+                        .distinct()
+                        .map(technologiesById::get)
+                        .filter(Objects::nonNull)
+                        .toList());
+    }
+
+    public void dispose() {
+        subscription.dispose();
+    }
+
+    // Peticiones consecutivas hasta maxBatchSize ids distintos; una peticion mayor queda sola y se parte al despachar
+    private List<List<PendingLoad>> groupByIdCount(List<PendingLoad> batch) {
+        try {
+            List<List<PendingLoad>> groups = new ArrayList<>();
+            List<PendingLoad> group = new ArrayList<>();
+            Set<Long> groupIds = new HashSet<>();
+            for (PendingLoad pendingLoad : batch) {
+                long newIds = pendingLoad.ids().stream().distinct().filter(id -> !groupIds.contains(id)).count();
+                if (!group.isEmpty() && groupIds.size() + newIds > maxBatchSize) {
+                    groups.add(group);
+                    group = new ArrayList<>();
+                    groupIds.clear();
+                }
+                group.add(pendingLoad);
+                groupIds.addAll(pendingLoad.ids());
+            }
+            if (!group.isEmpty()) {
+                groups.add(group);
+            }
+            return groups;
+        } catch (RuntimeException error) {
+            failAll(batch, error);
+            return List.of();
+        }
+    }
+
+    // Los trozos de una peticion mayor que maxBatchSize van en serie: el paralelismo total lo acota el flatMap exterior
+    private Mono<Void> dispatch(List<PendingLoad> batch) {
+        return Mono.defer(() -> {
+                    List<Long> ids = batch.stream()
+                            .flatMap(pendingLoad -> pendingLoad.ids().stream())
+                            .distinct()
+                            .toList();
+
+                    return Flux.fromIterable(ids)
+                            .buffer(maxBatchSize)
+                            .concatMap(slice -> fetcher.apply(slice).timeout(fetchTimeout))
+                            .collectMap(TechnologyResponse::getId);
+                })
+                .doOnNext(technologiesById -> batch.forEach(pendingLoad ->
+                        pendingLoad.result().tryEmitValue(technologiesById)))
+                .doOnError(error -> failAll(batch, error))
+                .onErrorResume(error -> Mono.empty())
+                .then();
+    }
+
+    private static void failAll(List<PendingLoad> batch, Throwable error) {
+        batch.forEach(pendingLoad -> pendingLoad.result().tryEmitError(error));
+    }
+
+    private record PendingLoad(List<Long> ids, Sinks.One<Map<Long, TechnologyResponse>> result) {
+    }
+}
@@ -1,24 +1,53 @@
 package com.pragma.ms_capacidades.infrastructure.out.client.adapter;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.pragma.ms_capacidades.infrastructure.input.rest.dto.TechnologyResponse;
 import com.pragma.ms_capacidades.domain.spi.TechnologyClientPort;
 
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Component
 public class TechnologyClientAdapter implements TechnologyClientPort {
 
     private final WebClient webClient;
+    private final Cache<Long, TechnologyResponse> technologyCache;
+    private final TechnologyBatchLoader batchLoader;
 
-    public TechnologyClientAdapter(@Qualifier("technologyWebClient") WebClient webClient) {
+    @Autowired
+    public TechnologyClientAdapter(@Qualifier("technologyWebClient") WebClient webClient,
+                                   Cache<Long, TechnologyResponse> technologyCache,
+                                   @Value("${services.technology.batch.window:5ms}") Duration batchWindow,
+                                   @Value("${services.technology.batch.max-size:100}") int batchMaxSize,
+                                   @Value("${services.technology.batch.max-concurrency:4}") int batchMaxConcurrency,
+                                   @Value("${services.technology.batch.max-pending:10000}") int batchMaxPending,
+                                   @Value("${services.technology.batch.fetch-timeout:3s}") Duration batchFetchTimeout) {
+        this(webClient, technologyCache, new TechnologyBatchLoader(ids -> fetchTechnologiesByIds(webClient, ids),
+                batchWindow, batchMaxSize, batchMaxConcurrency, batchMaxPending, batchFetchTimeout));
+    }
+
+    // Permite probar la cache con un cargador cuyo fetcher no llama al servicio de tecnologias
+    TechnologyClientAdapter(WebClient webClient, Cache<Long, TechnologyResponse> technologyCache,
+                            TechnologyBatchLoader batchLoader) {
         this.webClient = webClient;
+        this.technologyCache = technologyCache;
+        this.batchLoader = batchLoader;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchLoader.dispose();
     }
 
     @Override
@@ -30,33 +59,46 @@ public class TechnologyClientAdapter implements TechnologyClientPort {
                 .bodyToMono(Boolean.class);
     }
 
+    // Solo los ids que no estan en cache viajan al servicio de tecnologias, agrupados con otras peticiones en curso
     @Override
     public Flux<TechnologyResponse> getTechnologiesByIds(List<Long> ids) {
-        String idsParam = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
-        return webClient.get()
-                .uri(uriBuilder ->
-                        uriBuilder
-                                .path("/technology/byIds")
-                                .queryParam("ids", idsParam)
-                                .build()
-                )
-                .retrieve()
-                .bodyToFlux(TechnologyResponse.class);
+        return Flux.defer(() -> {
+            Map<Long, TechnologyResponse> cached = technologyCache.getAllPresent(ids);
+            List<Long> missing = ids.stream()
+                    .filter(id -> !cached.containsKey(id))
+                    .distinct()
+                    .toList();
+
+            Flux<TechnologyResponse> remote = missing.isEmpty()
+                    ? Flux.empty()
+                    : batchLoader.load(missing)
+                        .doOnNext(technology -> technologyCache.put(technology.getId(), technology));
+
+            return Flux.fromIterable(cached.values()).concatWith(remote);
+        });
     }
 
     @Override
     public Mono<Boolean> deleteTechnolgies(List<Long> ids) {
         String idsParam = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        // URI como plantilla para que las metricas del cliente se agrupen por endpoint y no por ids
         return webClient.delete()
-                .uri(uriBuilder ->
-                        uriBuilder
-                                .path("/technology")
-                                .queryParam("ids", idsParam)
-                                .build()
-                )
+                .uri("/technology?ids={ids}", idsParam)
                 .retrieve()
-                .bodyToMono(Boolean.class);
+                .bodyToMono(Boolean.class)
+                .doOnNext(deleted -> {
+                    if (Boolean.TRUE.equals(deleted)) {
+                        technologyCache.invalidateAll(ids);
+                    }
+                });
     }
 
+    private static Flux<TechnologyResponse> fetchTechnologiesByIds(WebClient webClient, List<Long> ids) {
+        String idsParam = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        return webClient.get()
+                .uri("/technology/byIds?ids={ids}", idsParam)
+                .retrieve()
+                .bodyToFlux(TechnologyResponse.class);
+    }
 
 }
@@ -1,20 +1,44 @@
 package com.pragma.ms_capacidades.infrastructure.out.r2dbc.adapter;
 
+import com.pragma.ms_capacidades.domain.exception.CapacityAlreadyExistsException;
 import com.pragma.ms_capacidades.domain.model.Capacity;
+import com.pragma.ms_capacidades.domain.model.CountStrategy;
+import com.pragma.ms_capacidades.domain.model.PageCursor;
 import com.pragma.ms_capacidades.domain.spi.ICapacityPersistencePort;
+import com.pragma.ms_capacidades.infrastructure.cache.CatalogVersion;
 import com.pragma.ms_capacidades.infrastructure.exception.InvalidSortFieldException;
+import com.pragma.ms_capacidades.infrastructure.out.r2dbc.entity.CapacityEntity;
 import com.pragma.ms_capacidades.infrastructure.out.r2dbc.entity.CapacityTechnologyEntity;
 import com.pragma.ms_capacidades.infrastructure.out.r2dbc.mapper.ICapacityEntityMapper;
-import com.pragma.ms_capacidades.infrastructure.out.r2dbc.projections.CapacityWithTechCountProjection;
+import com.pragma.ms_capacidades.infrastructure.out.r2dbc.projections.CapacityWithTechnologyIdsProjection;
 import com.pragma.ms_capacidades.infrastructure.out.r2dbc.repository.ICapacityR2dbcRepository;
 import com.pragma.ms_capacidades.infrastructure.out.r2dbc.repository.ICapacityTechnologyR2dbcRepository;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.pragma.ms_capacidades.domain.utils.Constants.CAPACITY_ALREADY_EXISTS;
 
 @Component
 public class CapacityRepositoryAdapter implements ICapacityPersistencePort {
@@ -24,86 +48,199 @@ public class CapacityRepositoryAdapter implements ICapacityPersistencePort {
     private final ICapacityEntityMapper capacityEntityMapper;
 
     private final DatabaseClient databaseClient;
+    private final CatalogVersion catalogVersion;
+
+    @Value("${capacity.count.strategy:EXACT}")
+    private CountStrategy countStrategy;
+
+    @Value("${capacity.count.cache-ttl:30s}")
+    private Duration countCacheTtl;
+
+    @Value("${capacity.export.page-size:500}")
+    private int exportPageSize;
+
+    private final AtomicReference<CachedCount> cachedCount = new AtomicReference<>();
+    private final AtomicLong countGeneration = new AtomicLong();
+
+    // Las relaciones viajan agregadas en la misma fila (subconsulta sobre la PK de capacity_technology),
+    // asi una pagina o un byIds es una sola consulta
+    private static final String SELECT_CAPACITIES = """
+            SELECT
+                c.id,
+                c.name,
+                c.description,
+                c.technology_count,
+                (SELECT GROUP_CONCAT(ct.technology_id ORDER BY ct.technology_id SEPARATOR ',')
+                 FROM capacity_technology ct
+                 WHERE ct.capacity_id = c.id) AS technology_ids
+            FROM capacities c
+            """;
+
+    private static final String CAPACITIES_BY_TECHNOLOGY = SELECT_CAPACITIES + """
+            JOIN capacity_technology link ON link.capacity_id = c.id
+            WHERE link.technology_id = :technologyId AND link.capacity_id > :afterId
+            ORDER BY link.capacity_id
+            LIMIT :limit
+            """;
+
+    private static final String EXPORT_PAGE = SELECT_CAPACITIES + """
+            WHERE c.id > :afterId
+            ORDER BY c.id
+            LIMIT :limit
+            """;
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "name", "c.name",
+            "technologycount", "c.technology_count");
+
+    // Un texto de sentencia fijo por columna y direccion, con LIMIT/OFFSET como parametros:
+    // el driver reutiliza la sentencia preparada y el plan en lugar de recibir un SQL distinto por pagina
+    private static final Map<String, String> PAGED_STATEMENTS = buildStatements(CapacityRepositoryAdapter::pagedSql);
+    private static final Map<String, String> SEEK_STATEMENTS = buildStatements(CapacityRepositoryAdapter::seekSql);
 
     public CapacityRepositoryAdapter(ICapacityTechnologyR2dbcRepository capacityTechnologyRepository,
                                      ICapacityR2dbcRepository capacityR2dbcRepository,
-                                     ICapacityEntityMapper capacityEntityMapper, DatabaseClient databaseClient) {
+                                     ICapacityEntityMapper capacityEntityMapper, DatabaseClient databaseClient,
+                                     CatalogVersion catalogVersion) {
         this.capacityTechnologyRepository = capacityTechnologyRepository;
         this.capacityR2dbcRepository = capacityR2dbcRepository;
         this.capacityEntityMapper = capacityEntityMapper;
         this.databaseClient = databaseClient;
+        this.catalogVersion = catalogVersion;
     }
 
     @Transactional
     @Override
     public Mono<Capacity> save(Capacity capacity) {
         return Mono.fromSupplier(() -> capacity)
-                .map(capacityEntityMapper::toEntity)
-                .flatMap(capacityR2dbcRepository::save)
+                .map(this::toEntityWithCount)
+                .flatMap(this::insertCapacity)
                 .flatMap(savedEntity ->
-                    Flux.fromIterable(savedEntity.getTechnologyIds())
-                        .map(techId -> new CapacityTechnologyEntity(savedEntity.getId(), techId))
-                        .flatMap(capacityTechnologyRepository::save)
-                        .then(Mono.just(savedEntity))
+                    insertTechnologyLinks(toTechnologyLinks(savedEntity))
+                        .thenReturn(savedEntity)
+                )
+                .map(capacityEntityMapper::toModel)
+                .flatMap(saved -> onCatalogChanged().thenReturn(saved));
+    }
+
+    // Todas las capacidades del bloque y sus relaciones en una sola transaccion
+    @Transactional
+    @Override
+    public Flux<Capacity> saveAll(List<Capacity> capacities) {
+        return Flux.fromIterable(capacities)
+                .map(this::toEntityWithCount)
+                .concatMap(this::insertCapacity)
+                .collectList()
+                .flatMapMany(savedEntities ->
+                    insertTechnologyLinks(savedEntities.stream()
+                            .flatMap(savedEntity -> toTechnologyLinks(savedEntity).stream())
+                            .toList())
+                        .then(onCatalogChanged())
+                        .thenMany(Flux.fromIterable(savedEntities))
                 )
                 .map(capacityEntityMapper::toModel);
     }
 
+    // El UNIQUE de capacities.name es la fuente de verdad: el duplicado se traduce al error de dominio (409)
+    private Mono<CapacityEntity> insertCapacity(CapacityEntity entity) {
+        return capacityR2dbcRepository.save(entity)
+                .onErrorMap(DuplicateKeyException.class,
+                        ex -> new CapacityAlreadyExistsException(CAPACITY_ALREADY_EXISTS));
+    }
+
     @Override
     public Mono<Boolean> existsByName(String name) {
         return capacityR2dbcRepository.existsByName(name);
     }
 
+    @Override
+    public Flux<String> findExistingNames(List<String> names) {
+        return capacityR2dbcRepository.findNamesByNameIn(names);
+    }
+
     @Override
     public Flux<Capacity> findAllPaged(int page, int size, String sortBy, String direction) {
-        long offset = (long) page * size;
-        String orderBy = resolveOrderBy(sortBy, direction);
+        return queryProjections(databaseClient.sql(pagedStatement(sortBy, direction))
+                .bind("limit", size)
+                .bind("offset", (long) page * size));
+    }
 
-        String sql = """
-            SELECT 
-                c.id,
-                c.name,
-                c.description,
-                COUNT(ct.technology_id) AS technology_count
-            FROM capacities c
-            LEFT JOIN capacity_technology ct 
-                ON c.id = ct.capacity_id
-            GROUP BY c.id, c.name, c.description
-            ORDER BY %s
-            LIMIT %d OFFSET %d
-        """.formatted(orderBy, size, offset);
-
-        return databaseClient.sql(sql)
-                .map((row, meta) -> new CapacityWithTechCountProjection(
-                        row.get("id", Long.class),
-                        row.get("name", String.class),
-                        row.get("description", String.class),
-                        row.get("technology_count", Long.class)
-                ))
-                .all()
-                .map(capacityEntityMapper::toModelProjection);
+    // Paginacion por cursor: filtra por la ultima clave de orden + id en lugar de saltar filas con OFFSET
+    @Override
+    public Flux<Capacity> findPageAfter(PageCursor cursor, int size) {
+        boolean byName = "name".equalsIgnoreCase(cursor.getSortBy());
+        Object lastValue = byName ? cursor.getLastValue() : Long.valueOf(cursor.getLastValue());
+
+        return queryProjections(databaseClient.sql(seekStatement(cursor.getSortBy(), cursor.getDirection()))
+                .bind("lastValue", lastValue)
+                .bind("lastId", cursor.getLastId())
+                .bind("limit", size));
+    }
+
+    // Recorre el catalogo por paginas de clave (c.id > ultimo id) con una sentencia parametrizada: cada pagina es
+    // una consulta preparada corta y en memoria solo hay una pagina a la vez, sin depender del cursor del driver.
+    // La lectura sigue la demanda del cliente: la pagina siguiente se consulta cuando se entrego la ultima fila de
+    // la actual (concatMapIterable sin prefetch de paginas, concatMap sin prefetch al armar cada consulta)
+    @Override
+    public Flux<Capacity> streamAllWithTechnologyIds() {
+        int pageSize = Math.max(1, exportPageSize);
+        return exportPageAfter(0L, pageSize)
+                .expand(page -> page.size() < pageSize
+                        ? Flux.empty()
+                        : exportPageAfter(page.get(page.size() - 1).getId(), pageSize))
+                .concatMapIterable(page -> page, 1);
+    }
+
+    private Flux<List<Capacity>> exportPageAfter(Long afterId, int pageSize) {
+        return Flux.just(afterId).concatMap(id -> queryProjections(databaseClient.sql(EXPORT_PAGE)
+                        .bind("afterId", id)
+                        .bind("limit", pageSize))
+                .collectList(), 0);
     }
 
     @Override
     public Mono<Long> count() {
-        return capacityR2dbcRepository.countAll();
+        CountStrategy strategy = countStrategy == null ? CountStrategy.EXACT : countStrategy;
+        return switch (strategy) {
+            case EXACT -> capacityR2dbcRepository.countAll();
+            case CACHED -> cachedCount();
+            case ESTIMATED -> estimatedCount();
+        };
     }
 
     @Override
-    public Flux<Long> findTechnologyIdsByCapacityId(Long capacityId) {
-        return capacityTechnologyRepository.findTechnologyIdsByCapacityId(capacityId);
+    public Flux<Capacity> findCapacitiesWithTechnologyIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return queryProjections(databaseClient.sql(SELECT_CAPACITIES + "WHERE c.id IN (:ids)")
+                .bind("ids", ids));
     }
 
+    // Recorre el indice (technology_id, capacity_id) desde el ultimo id entregado, sin OFFSET
     @Override
-    public Flux<Capacity> findCapacitiesByIds(List<Long> ids) {
-        return capacityR2dbcRepository.findByIdIn(ids).map(capacityEntityMapper::toModel);
+    public Flux<Capacity> findCapacitiesByTechnology(Long technologyId, Long afterCapacityId, int size) {
+        return queryProjections(databaseClient.sql(CAPACITIES_BY_TECHNOLOGY)
+                .bind("technologyId", technologyId)
+                .bind("afterId", afterCapacityId == null ? 0L : afterCapacityId)
+                .bind("limit", size));
+    }
+
+    @Override
+    public Mono<Long> countByTechnology(Long technologyId) {
+        return capacityTechnologyRepository.countByTechnologyId(technologyId);
     }
 
     @Transactional
     @Override
     public Mono<Boolean> deleteCapacities(List<Long> ids) {
-        return capacityTechnologyRepository.deleteAllByCapacityIdIn(ids)
+        // Las tecnologias que quedan huerfanas se encolan en la misma transaccion; el relay las borra despues
+        return findTechnologiesNotReferencedInOtherCapacities(ids)
+                .collectList()
+                .flatMap(this::enqueueTechnologyDeletions)
+                .then(capacityTechnologyRepository.deleteAllByCapacityIdIn(ids))
                 .then(capacityR2dbcRepository.deleteAllById(ids))
+                .then(onCatalogChanged())
                 .thenReturn(true)
                 .onErrorResume(Mono::error);
     }
@@ -113,14 +250,199 @@ public class CapacityRepositoryAdapter implements ICapacityPersistencePort {
         return capacityTechnologyRepository.findTechnologiesNotReferencedInOtherCapacities(capacitiesIds);
     }
 
-    private String resolveOrderBy(String sortBy, String direction) {
-        String column = switch (sortBy.toLowerCase()) {
-            case "name" -> "c.name";
-            case "technologycount" -> "technology_count";
-            default -> throw new InvalidSortFieldException("Invalid sort field. Only 'name' and 'technologyCount' are allowed.");
-        };
-        String dir = direction.equalsIgnoreCase("desc") ? "DESC" : "ASC";
-        return column + " " + dir;
+    @Transactional
+    @Override
+    public Mono<Long> rebuildTechnologyCounts() {
+        return capacityR2dbcRepository.rebuildTechnologyCounts()
+                .flatMap(updated -> updated > 0
+                        ? afterCommit(catalogVersion::bump).thenReturn(updated)
+                        : Mono.just(updated));
+    }
+
+    private CapacityEntity toEntityWithCount(Capacity capacity) {
+        CapacityEntity entity = capacityEntityMapper.toEntity(capacity);
+        // Conteo desnormalizado: se escribe en el mismo INSERT que la capacidad
+        entity.setTechnologyCount(entity.getTechnologyIds() == null ? 0 : entity.getTechnologyIds().size());
+        return entity;
+    }
+
+    private List<CapacityTechnologyEntity> toTechnologyLinks(CapacityEntity savedEntity) {
+        return savedEntity.getTechnologyIds().stream()
+                .map(techId -> new CapacityTechnologyEntity(savedEntity.getId(), techId))
+                .toList();
+    }
+
+    // Un solo INSERT multi-fila para todas las relaciones en lugar de un INSERT por tecnologia
+    private Mono<Long> insertTechnologyLinks(List<CapacityTechnologyEntity> links) {
+        if (links.isEmpty()) {
+            return Mono.just(0L);
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(buildInsertLinksSql(links.size()));
+        for (int i = 0; i < links.size(); i++) {
+            spec = spec.bind("capacityId" + i, links.get(i).getCapacityId())
+                    .bind("technologyId" + i, links.get(i).getTechnologyId());
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    static String buildInsertLinksSql(int rows) {
+        String values = IntStream.range(0, rows)
+                .mapToObj(i -> "(:capacityId" + i + ", :technologyId" + i + ")")
+                .collect(Collectors.joining(", "));
+        return "INSERT INTO capacity_technology (capacity_id, technology_id) VALUES " + values;
+    }
+
+    private Mono<Long> enqueueTechnologyDeletions(List<Long> technologyIds) {
+        if (technologyIds.isEmpty()) {
+            return Mono.just(0L);
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(buildInsertOutboxSql(technologyIds.size()));
+        for (int i = 0; i < technologyIds.size(); i++) {
+            spec = spec.bind("technologyId" + i, technologyIds.get(i));
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    static String buildInsertOutboxSql(int rows) {
+        String values = IntStream.range(0, rows)
+                .mapToObj(i -> "(:technologyId" + i + ")")
+                .collect(Collectors.joining(", "));
+        return "INSERT INTO technology_deletion_outbox (technology_id) VALUES " + values;
+    }
+
+    // Cada total guarda la generacion en la que se lanzo su consulta. Un conteo que empezo antes de una
+    // invalidacion y termina despues queda con una generacion vieja y no se sirve, aunque llegue a guardarse
+    private Mono<Long> cachedCount() {
+        return Mono.defer(() -> {
+            long generation = countGeneration.get();
+            CachedCount cached = cachedCount.get();
+            if (cached != null && cached.generation() == generation && cached.expiresAt().isAfter(Instant.now())) {
+                return Mono.just(cached.value());
+            }
+            return capacityR2dbcRepository.countAll()
+                    .doOnNext(total -> {
+                        if (countGeneration.get() == generation) {
+                            cachedCount.set(new CachedCount(total, Instant.now().plus(countCacheTtl), generation));
+                        }
+                    });
+        });
+    }
+
+    // TABLE_ROWS es aproximado en InnoDB; si no hay estadisticas se cae al conteo exacto
+    private Mono<Long> estimatedCount() {
+        return databaseClient.sql("""
+                    SELECT TABLE_ROWS AS estimated_rows
+                    FROM information_schema.TABLES
+                    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'capacities' AND TABLE_ROWS IS NOT NULL
+                """)
+                .map((row, meta) -> row.get("estimated_rows", Long.class))
+                .one()
+                .switchIfEmpty(Mono.defer(capacityR2dbcRepository::countAll));
+    }
+
+    // Toda escritura invalida el total cacheado y cambia la version que alimenta los ETag, ambos al confirmar:
+    // antes del commit una lectura concurrente cachearia el total anterior o etiquetaria datos viejos con la
+    // version nueva
+    private Mono<Void> onCatalogChanged() {
+        return afterCommit(() -> {
+            countGeneration.incrementAndGet();
+            cachedCount.set(null);
+            catalogVersion.bump();
+        });
+    }
+
+    // Fuera de una transaccion (o sin sincronizacion activa) la accion se ejecuta de inmediato
+    private Mono<Void> afterCommit(Runnable action) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .flatMap(synchronizationManager -> {
+                    if (!synchronizationManager.isSynchronizationActive()) {
+                        return Mono.<Void>fromRunnable(action);
+                    }
+                    synchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCommit() {
+                            return Mono.fromRunnable(action);
+                        }
+                    });
+                    return Mono.<Void>empty();
+                })
+                .onErrorResume(NoTransactionException.class, ex -> Mono.fromRunnable(action));
     }
 
+    private Flux<Capacity> queryProjections(DatabaseClient.GenericExecuteSpec spec) {
+        return spec
+                .map((row, meta) -> new CapacityWithTechnologyIdsProjection(
+                        row.get("id", Long.class),
+                        row.get("name", String.class),
+                        row.get("description", String.class),
+                        technologyCount(row),
+                        parseTechnologyIds(row.get("technology_ids", String.class))
+                ))
+                .all()
+                .map(capacityEntityMapper::toModelWithTechnologyIds);
+    }
+
+    // La columna es INT: se lee como Integer porque no todos los drivers convierten INT a Long
+    private static Long technologyCount(Row row) {
+        return Long.valueOf(row.get("technology_count", Integer.class));
+    }
+
+    String pagedStatement(String sortBy, String direction) {
+        return findStatement(PAGED_STATEMENTS, sortBy, direction);
+    }
+
+    String seekStatement(String sortBy, String direction) {
+        return findStatement(SEEK_STATEMENTS, sortBy, direction);
+    }
+
+    private static String findStatement(Map<String, String> statements, String sortBy, String direction) {
+        String sql = statements.get(statementKey(sortBy, direction));
+        if (sql == null) {
+            throw new InvalidSortFieldException("Invalid sort field. Only 'name' and 'technologyCount' are allowed.");
+        }
+        return sql;
+    }
+
+    private static Map<String, String> buildStatements(BiFunction<String, String, String> builder) {
+        Map<String, String> statements = new HashMap<>();
+        SORT_COLUMNS.forEach((sortBy, column) -> {
+            statements.put(statementKey(sortBy, "asc"), builder.apply(column, "ASC"));
+            statements.put(statementKey(sortBy, "desc"), builder.apply(column, "DESC"));
+        });
+        return Map.copyOf(statements);
+    }
+
+    private static String statementKey(String sortBy, String direction) {
+        String dir = "desc".equalsIgnoreCase(direction) ? "DESC" : "ASC";
+        return sortBy.toLowerCase(Locale.ROOT) + ":" + dir;
+    }
+
+    private static String pagedSql(String column, String dir) {
+        // El id desempata filas con la misma clave para que el orden (y el cursor) sea estable
+        return SELECT_CAPACITIES + """
+            ORDER BY %1$s %2$s, c.id %2$s
+            LIMIT :limit OFFSET :offset
+            """.formatted(column, dir);
+    }
+
+    private static String seekSql(String column, String dir) {
+        String comparator = "DESC".equals(dir) ? "<" : ">";
+        return SELECT_CAPACITIES + """
+            WHERE (%1$s %3$s :lastValue OR (%1$s = :lastValue AND c.id %3$s :lastId))
+            ORDER BY %1$s %2$s, c.id %2$s
+            LIMIT :limit
+            """.formatted(column, dir, comparator);
+    }
+
+    static List<Long> parseTechnologyIds(String aggregated) {
+        if (aggregated == null || aggregated.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(aggregated.split(","))
+                .map(Long::valueOf)
+                .toList();
+    }
+
+    private record CachedCount(Long value, Instant expiresAt, long generation) {
+    }
 }
@@ -0,0 +1,113 @@
+package com.pragma.ms_capacidades.infrastructure.out.r2dbc.adapter;
+
+import com.pragma.ms_capacidades.domain.model.TechnologyDeletion;
+import com.pragma.ms_capacidades.domain.spi.ITechnologyOutboxPersistencePort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Los tiempos se calculan con el reloj de la BD, el mismo que usa el DEFAULT de next_attempt_at al encolar
+@Component
+@RequiredArgsConstructor
+public class TechnologyOutboxRepositoryAdapter implements ITechnologyOutboxPersistencePort {
+
+    private final DatabaseClient databaseClient;
+
+    // Reclama las filas en una transaccion corta: FOR UPDATE SKIP LOCKED evita que otra replica lea las mismas
+    // y next_attempt_at se adelanta el tiempo del lease, asi quedan fuera de las siguientes lecturas mientras se
+    // entregan. Si la instancia cae, el lease vence y otra replica las retoma
+    @Transactional
+    @Override
+    public Flux<TechnologyDeletion> claimPendingDeletions(int limit, Duration lease) {
+        return databaseClient.sql("""
+                        SELECT o.id, o.technology_id, o.attempts
+                        FROM technology_deletion_outbox o
+                        WHERE o.failed_at IS NULL AND o.next_attempt_at <= CURRENT_TIMESTAMP
+                        ORDER BY o.id
+                        LIMIT :limit
+                        FOR UPDATE SKIP LOCKED
+                        """)
+                .bind("limit", limit)
+                .map((row, meta) -> new TechnologyDeletion(
+                        row.get("id", Long.class),
+                        row.get("technology_id", Long.class),
+                        row.get("attempts", Integer.class),
+                        false
+                ))
+                .all()
+                .collectList()
+                .flatMapMany(claimed -> claimed.isEmpty()
+                        ? Flux.empty()
+                        : extendLease(claimed, lease)
+                            .then(findReferencedTechnologies(claimed))
+                            .flatMapMany(referenced -> Flux.fromIterable(claimed)
+                                    .doOnNext(deletion -> deletion.setReferenced(
+                                            referenced.contains(deletion.getTechnologyId())))));
+    }
+
+    private Mono<Void> extendLease(List<TechnologyDeletion> claimed, Duration lease) {
+        return databaseClient.sql("""
+                        UPDATE technology_deletion_outbox
+                        SET next_attempt_at = TIMESTAMPADD(SECOND, :leaseSeconds, CURRENT_TIMESTAMP)
+                        WHERE id IN (:ids)
+                        """)
+                .bind("leaseSeconds", Math.max(1, lease.toSeconds()))
+                .bind("ids", claimed.stream().map(TechnologyDeletion::getId).toList())
+                .then();
+    }
+
+    // Las que volvieron a asociarse a una capacidad despues de encolarse; se consulta aparte para no bloquear
+    // filas de capacity_technology con el FOR UPDATE
+    private Mono<Set<Long>> findReferencedTechnologies(List<TechnologyDeletion> claimed) {
+        return databaseClient.sql("""
+                        SELECT DISTINCT ct.technology_id
+                        FROM capacity_technology ct
+                        WHERE ct.technology_id IN (:technologyIds)
+                        """)
+                .bind("technologyIds", claimed.stream().map(TechnologyDeletion::getTechnologyId).distinct().toList())
+                .map((row, meta) -> row.get("technology_id", Long.class))
+                .all()
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public Mono<Void> removeDeletions(List<Long> ids) {
+        return databaseClient.sql("DELETE FROM technology_deletion_outbox WHERE id IN (:ids)")
+                .bind("ids", ids)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> scheduleRetry(List<Long> ids, Duration delay) {
+        return databaseClient.sql("""
+                        UPDATE technology_deletion_outbox
+                        SET attempts = attempts + 1,
+                            next_attempt_at = TIMESTAMPADD(SECOND, :delaySeconds, CURRENT_TIMESTAMP)
+                        WHERE id IN (:ids)
+                        """)
+                .bind("delaySeconds", Math.max(1, delay.toSeconds()))
+                .bind("ids", ids)
+                .then();
+    }
+
+    // Las filas marcadas quedan en la tabla para revisarlas; el relay ya no las lee
+    @Override
+    public Mono<Void> markFailed(List<Long> ids) {
+        return databaseClient.sql("""
+                        UPDATE technology_deletion_outbox
+                        SET attempts = attempts + 1,
+                            failed_at = CURRENT_TIMESTAMP
+                        WHERE id IN (:ids)
+                        """)
+                .bind("ids", ids)
+                .then();
+    }
+}
@@ -19,6 +19,7 @@ public class CapacityEntity {
     private Long id;
     private String name;
     private String description;
+    private Integer technologyCount;
 
     @Transient
     private List<Long> technologyIds;
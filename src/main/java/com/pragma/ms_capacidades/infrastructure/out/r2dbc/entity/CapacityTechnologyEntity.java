@@ -1,9 +1,11 @@
 package com.pragma.ms_capacidades.infrastructure.out.r2dbc.entity;
 
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import org.springframework.data.relational.core.mapping.Table;
 
 @Table("capacity_technology")
+@Getter
 @NoArgsConstructor
 public class CapacityTechnologyEntity {
 
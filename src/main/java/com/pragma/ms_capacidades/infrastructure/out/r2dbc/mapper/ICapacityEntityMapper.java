@@ -2,7 +2,7 @@ package com.pragma.ms_capacidades.infrastructure.out.r2dbc.mapper;
 
 import com.pragma.ms_capacidades.domain.model.Capacity;
 import com.pragma.ms_capacidades.infrastructure.out.r2dbc.entity.CapacityEntity;
-import com.pragma.ms_capacidades.infrastructure.out.r2dbc.projections.CapacityWithTechCountProjection;
+import com.pragma.ms_capacidades.infrastructure.out.r2dbc.projections.CapacityWithTechnologyIdsProjection;
 import org.mapstruct.Mapper;
 import org.mapstruct.ReportingPolicy;
 
@@ -15,5 +15,5 @@ public interface ICapacityEntityMapper {
 
     Capacity toModel(CapacityEntity capacityEntity);
 
-    Capacity toModelProjection(CapacityWithTechCountProjection projection);
+    Capacity toModelWithTechnologyIds(CapacityWithTechnologyIdsProjection projection);
 }
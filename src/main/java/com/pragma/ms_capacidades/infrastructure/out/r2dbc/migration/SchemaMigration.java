@@ -0,0 +1,95 @@
+package com.pragma.ms_capacidades.infrastructure.out.r2dbc.migration;
+
+import com.pragma.ms_capacidades.infrastructure.out.r2dbc.repository.ICapacityR2dbcRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+
+// schema.sql solo crea las tablas que faltan: las columnas e indices agregados despues se aplican aqui sobre
+// bases existentes, antes de que el servidor acepte peticiones. Cada paso comprueba information_schema y es
+// idempotente. Solo aplica a MySQL; las bases en memoria (H2) siempre se crean completas desde schema.sql
+@Slf4j
+@Component
+@DependsOnDatabaseInitialization
+public class SchemaMigration {
+
+    private static final String COLUMN_EXISTS = """
+            SELECT COUNT(*) AS found
+            FROM information_schema.COLUMNS
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = :table AND COLUMN_NAME = :column
+            """;
+
+    private static final String INDEX_EXISTS = """
+            SELECT COUNT(*) AS found
+            FROM information_schema.STATISTICS
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = :table AND INDEX_NAME = :index
+            """;
+
+    private final DatabaseClient databaseClient;
+    private final ICapacityR2dbcRepository capacityR2dbcRepository;
+
+    public SchemaMigration(DatabaseClient databaseClient, ICapacityR2dbcRepository capacityR2dbcRepository) {
+        this.databaseClient = databaseClient;
+        this.capacityR2dbcRepository = capacityR2dbcRepository;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        migrateSchema().block();
+    }
+
+    Mono<Void> migrateSchema() {
+        if (!isMySql()) {
+            return Mono.empty();
+        }
+        return addTechnologyCountColumn()
+                .then(ensureIndex("capacities", "idx_capacities_technology_count",
+                        "CREATE INDEX idx_capacities_technology_count ON capacities (technology_count, id)"))
+                // Sin este indice la busqueda por tecnologia y la deteccion de huerfanas recorren toda la tabla
+                .then(ensureIndex("capacity_technology", "idx_capacity_technology_technology",
+                        "CREATE INDEX idx_capacity_technology_technology ON capacity_technology (technology_id, capacity_id)"));
+    }
+
+    // La columna nace en 0 para todas las filas: se recalcula una vez desde capacity_technology en vez de
+    // esperar al job nocturno de reparacion
+    private Mono<Void> addTechnologyCountColumn() {
+        return exists(COLUMN_EXISTS, "column", "capacities", "technology_count")
+                .flatMap(present -> present
+                        ? Mono.<Void>empty()
+                        : execute("ALTER TABLE capacities ADD COLUMN technology_count INT NOT NULL DEFAULT 0")
+                            .then(capacityR2dbcRepository.rebuildTechnologyCounts())
+                            .doOnNext(updated -> log.info(
+                                    "Columna capacities.technology_count agregada y calculada en {} capacidades", updated))
+                            .then());
+    }
+
+    private Mono<Void> ensureIndex(String table, String index, String ddl) {
+        return exists(INDEX_EXISTS, "index", table, index)
+                .flatMap(present -> present
+                        ? Mono.<Void>empty()
+                        : execute(ddl).doOnSuccess(ignored -> log.info("Indice {} creado en {}", index, table)));
+    }
+
+    private Mono<Boolean> exists(String sql, String nameParameter, String table, String name) {
+        return databaseClient.sql(sql)
+                .bind("table", table)
+                .bind(nameParameter, name)
+                .map((row, meta) -> row.get("found", Long.class))
+                .one()
+                .map(found -> found > 0);
+    }
+
+    private Mono<Void> execute(String ddl) {
+        return databaseClient.sql(ddl).fetch().rowsUpdated().then();
+    }
+
+    private boolean isMySql() {
+        String database = databaseClient.getConnectionFactory().getMetadata().getName().toLowerCase(Locale.ROOT);
+        return database.contains("mysql") || database.contains("mariadb");
+    }
+}
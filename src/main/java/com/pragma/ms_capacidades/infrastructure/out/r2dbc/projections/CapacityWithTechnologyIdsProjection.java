@@ -4,13 +4,16 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class CapacityWithTechCountProjection {
+public class CapacityWithTechnologyIdsProjection {
 
     private Long id;
     private String name;
     private String description;
     private Long technologyCount;
+    private List<Long> technologyIds;
 }
@@ -1,6 +1,7 @@
 package com.pragma.ms_capacidades.infrastructure.out.r2dbc.repository;
 
 import com.pragma.ms_capacidades.infrastructure.out.r2dbc.entity.CapacityEntity;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
@@ -12,10 +13,23 @@ public interface ICapacityR2dbcRepository extends ReactiveCrudRepository<Capacit
 
     Mono<Boolean> existsByName(String name);
 
+    @Query("SELECT c.name FROM capacities c WHERE c.name IN (:names)")
+    Flux<String> findNamesByNameIn(List<String> names);
+
     @Query("SELECT COUNT(*) FROM capacities")
     Mono<Long> countAll();
 
-    Flux<CapacityEntity> findByIdIn(List<Long> ids);
+    @Modifying
+    @Query("""
+        UPDATE capacities c
+        SET c.technology_count = (
+            SELECT COUNT(*) FROM capacity_technology ct WHERE ct.capacity_id = c.id
+        )
+        WHERE c.technology_count <> (
+            SELECT COUNT(*) FROM capacity_technology ct WHERE ct.capacity_id = c.id
+        )
+    """)
+    Mono<Long> rebuildTechnologyCounts();
 
     /*@Query("""
         SELECT 
@@ -11,11 +11,13 @@ import java.util.List;
 
 public interface ICapacityTechnologyR2dbcRepository extends ReactiveCrudRepository<CapacityTechnologyEntity, Long> {
 
-    @Query("SELECT ct.technology_id FROM capacity_technology ct WHERE ct.capacity_id = :capacityId")
-    Flux<Long> findTechnologyIdsByCapacityId(Long capacityId);
+    @Query("SELECT COUNT(*) FROM capacity_technology ct WHERE ct.technology_id = :technologyId")
+    Mono<Long> countByTechnologyId(Long technologyId);
 
 
-    @Query("""
+    // La sonda NOT EXISTS usa el indice (technology_id, capacity_id); OrphanTechnologyQueryBenchmark muestra que
+    // con ese indice las reescrituras (tabla derivada, GROUP BY ... HAVING) no mejoran esta consulta
+    String ORPHAN_TECHNOLOGIES_QUERY = """
         SELECT DISTINCT ct.technology_id
         FROM capacity_technology ct
         WHERE ct.capacity_id IN (:capacityIds)
@@ -25,7 +27,9 @@ public interface ICapacityTechnologyR2dbcRepository extends ReactiveCrudReposito
               WHERE ct2.technology_id = ct.technology_id
                 AND ct2.capacity_id NOT IN (:capacityIds)
           )
-    """)
+    """;
+
+    @Query(ORPHAN_TECHNOLOGIES_QUERY)
     Flux<Long> findTechnologiesNotReferencedInOtherCapacities(@Param("capacityIds") List<Long> capacityIds);
 
 
@@ -1,15 +1,27 @@
 CREATE TABLE IF NOT EXISTS capacities (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     name VARCHAR(50) NOT NULL UNIQUE,
-    description VARCHAR(90) NOT NULL
+    description VARCHAR(90) NOT NULL,
+    technology_count INT NOT NULL DEFAULT 0,
+    INDEX idx_capacities_technology_count (technology_count, id)
 );
 
 CREATE TABLE IF NOT EXISTS capacity_technology (
      capacity_id BIGINT NOT NULL,
      technology_id BIGINT NOT NULL,
      PRIMARY KEY (capacity_id, technology_id),
+     INDEX idx_capacity_technology_technology (technology_id, capacity_id),
      CONSTRAINT fk_capacity
          FOREIGN KEY (capacity_id)
              REFERENCES capacities(id)
              ON DELETE CASCADE
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS technology_deletion_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    technology_id BIGINT NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    failed_at TIMESTAMP NULL DEFAULT NULL,
+    INDEX idx_outbox_next_attempt (failed_at, next_attempt_at, id)
+);
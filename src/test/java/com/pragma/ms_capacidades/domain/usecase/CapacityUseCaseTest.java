@@ -3,15 +3,22 @@ package com.pragma.ms_capacidades.domain.usecase;
 import com.pragma.ms_capacidades.domain.exception.BadRequestException;
 import com.pragma.ms_capacidades.domain.exception.CapacityAlreadyExistsException;
 import com.pragma.ms_capacidades.domain.model.Capacity;
+import com.pragma.ms_capacidades.domain.model.CapacityBatchResult;
+import com.pragma.ms_capacidades.domain.model.CapacityDeleteChunkResult;
+import com.pragma.ms_capacidades.domain.model.EnrichmentOptions;
+import com.pragma.ms_capacidades.domain.model.PageCursor;
 import com.pragma.ms_capacidades.domain.spi.ICapacityPersistencePort;
 import com.pragma.ms_capacidades.domain.spi.TechnologyClientPort;
 import com.pragma.ms_capacidades.infrastructure.input.rest.dto.TechnologyResponse;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -19,9 +26,17 @@ import reactor.test.StepVerifier;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-
+import java.util.stream.IntStream;
+
+import static com.pragma.ms_capacidades.domain.utils.Constants.CAPACITIES_NOT_DELETED;
+import static com.pragma.ms_capacidades.domain.utils.Constants.CAPACITY_ALREADY_EXISTS;
+import static com.pragma.ms_capacidades.domain.utils.Constants.CAPACITY_NOT_SAVED;
+import static com.pragma.ms_capacidades.domain.utils.Constants.NAME_IS_REQUIRED;
+import static com.pragma.ms_capacidades.domain.utils.Constants.TECHNOLOGY_NOT_EXIST;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +51,13 @@ class CapacityUseCaseTest {
     @InjectMocks
     private CapacityUseCase capacityUseCase;
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(capacityUseCase, "enrichmentBatchSize", 100);
+        ReflectionTestUtils.setField(capacityUseCase, "enrichmentMaxConcurrency", 4);
+        ReflectionTestUtils.setField(capacityUseCase, "batchChunkSize", 100);
+    }
+
     @Test
     @DisplayName("Save: Should save capacity when all rules are met (Happy Path)")
     void save_WhenAllRulesMet_ShouldReturnCapacity() {
@@ -70,10 +92,6 @@ class CapacityUseCaseTest {
         // Caso: Nombre vacío Y lista de tecnologías vacía (menos de 3)
         Capacity capacity = new Capacity(null, "", "Desc", Collections.emptyList(), null, null);
 
-        // Nota: Tu código llama a existAllByIds incluso si la lista está vacía, así que debemos mockearlo
-        // para evitar NullPointerException o errores inesperados en el test.
-        when(technologyClientPort.existAllByIds(anyList())).thenReturn(Mono.just(true));
-
         // Act
         Mono<Capacity> result = capacityUseCase.save(capacity);
 
@@ -84,6 +102,7 @@ class CapacityUseCaseTest {
                 .verify();
 
         verifyNoInteractions(capacityPersistencePort); // No debe intentar guardar
+        verifyNoInteractions(technologyClientPort); // Falla rápido sin llamadas remotas
     }
 
     @Test
@@ -95,6 +114,8 @@ class CapacityUseCaseTest {
 
         // Simulamos que el microservicio de tecnologías devuelve FALSE
         when(technologyClientPort.existAllByIds(techIds)).thenReturn(Mono.just(false));
+        // La validación del nombre corre en paralelo
+        when(capacityPersistencePort.existsByName(capacity.getName())).thenReturn(Mono.just(false));
 
         // Act
         Mono<Capacity> result = capacityUseCase.save(capacity);
@@ -105,7 +126,52 @@ class CapacityUseCaseTest {
                 .verify();
 
         verify(technologyClientPort).existAllByIds(techIds);
-        verifyNoInteractions(capacityPersistencePort);
+        verify(capacityPersistencePort).existsByName(capacity.getName());
+        verify(capacityPersistencePort, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Save: Should merge the missing technology and the taken name into one BadRequestException")
+    void save_WhenTechnologiesMissingAndNameTaken_ShouldReportBoth() {
+        // Arrange
+        List<Long> techIds = Arrays.asList(1L, 2L, 3L);
+        Capacity capacity = new Capacity(null, "Existing Name", "Desc", techIds, null, null);
+
+        when(technologyClientPort.existAllByIds(techIds)).thenReturn(Mono.just(false));
+        when(capacityPersistencePort.existsByName(capacity.getName())).thenReturn(Mono.just(true));
+
+        // Act
+        Mono<Capacity> result = capacityUseCase.save(capacity);
+
+        // Assert
+        StepVerifier.create(result)
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals(TECHNOLOGY_NOT_EXIST + "|" + CAPACITY_ALREADY_EXISTS))
+                .verify();
+
+        verify(capacityPersistencePort, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Save: Should treat an empty technology validation response as missing technologies")
+    void save_WhenTechnologyValidationEmpty_ShouldThrowBadRequest() {
+        // Arrange
+        List<Long> techIds = Arrays.asList(1L, 2L, 3L);
+        Capacity capacity = new Capacity(null, "Name", "Desc", techIds, null, null);
+
+        when(technologyClientPort.existAllByIds(techIds)).thenReturn(Mono.empty());
+        when(capacityPersistencePort.existsByName(capacity.getName())).thenReturn(Mono.just(false));
+
+        // Act
+        Mono<Capacity> result = capacityUseCase.save(capacity);
+
+        // Assert
+        StepVerifier.create(result)
+                .expectErrorMatches(throwable -> throwable instanceof BadRequestException
+                        && throwable.getMessage().equals(TECHNOLOGY_NOT_EXIST))
+                .verify();
+
+        verify(capacityPersistencePort, never()).save(any());
     }
 
     @Test
@@ -130,6 +196,156 @@ class CapacityUseCaseTest {
         verify(capacityPersistencePort, never()).save(any());
     }
 
+    @Test
+    @DisplayName("Save: Should skip the name query in optimistic mode and surface the duplicate from the insert")
+    void save_WhenOptimisticMode_ShouldNotQueryNameBeforeInsert() {
+        // Arrange
+        ReflectionTestUtils.setField(capacityUseCase, "optimisticCreate", true);
+        List<Long> techIds = Arrays.asList(1L, 2L, 3L);
+        Capacity capacity = new Capacity(null, "Existing Name", "Desc", techIds, null, null);
+
+        when(technologyClientPort.existAllByIds(techIds)).thenReturn(Mono.just(true));
+        // El adaptador traduce la violación del UNIQUE al error de dominio
+        when(capacityPersistencePort.save(capacity))
+                .thenReturn(Mono.error(new CapacityAlreadyExistsException(CAPACITY_ALREADY_EXISTS)));
+
+        // Act
+        Mono<Capacity> result = capacityUseCase.save(capacity);
+
+        // Assert
+        StepVerifier.create(result)
+                .expectError(CapacityAlreadyExistsException.class)
+                .verify();
+
+        verify(capacityPersistencePort, never()).existsByName(anyString());
+        verify(capacityPersistencePort).save(capacity);
+    }
+
+    @Test
+    @DisplayName("SaveAll: Should validate the chunk with one name query and attribute missing technologies per item")
+    void saveAll_ShouldValidateChunkOnceAndReportPerItem() {
+        // Arrange
+        Capacity valid = new Capacity(null, "Backend", "Desc", List.of(1L, 2L, 3L), null, null);
+        Capacity invalidLocal = new Capacity(null, "", "Desc", List.of(1L), null, null);
+        Capacity existingName = new Capacity(null, "Frontend", "Desc", List.of(1L, 2L, 3L), null, null);
+        Capacity missingTech = new Capacity(null, "Data", "Desc", List.of(1L, 2L, 99L), null, null);
+        Capacity saved = new Capacity(10L, "Backend", "Desc", List.of(1L, 2L, 3L), null, null);
+
+        // La validacion del bloque falla: se valida cada capacidad para saber cual referencia la tecnologia faltante
+        when(technologyClientPort.existAllByIds(List.of(1L, 2L, 3L, 99L))).thenReturn(Mono.just(false));
+        when(technologyClientPort.existAllByIds(List.of(1L, 2L, 3L))).thenReturn(Mono.just(true));
+        when(technologyClientPort.existAllByIds(List.of(1L, 2L, 99L))).thenReturn(Mono.just(false));
+        when(capacityPersistencePort.findExistingNames(List.of("Backend", "Frontend", "Data")))
+                .thenReturn(Flux.just("frontend"));
+        when(capacityPersistencePort.saveAll(List.of(valid))).thenReturn(Flux.just(saved));
+
+        // Act
+        Flux<CapacityBatchResult> result = capacityUseCase.saveAll(
+                Flux.just(valid, invalidLocal, existingName, missingTech));
+
+        // Assert
+        StepVerifier.create(result)
+                .assertNext(item -> {
+                    assert item.isCreated();
+                    assert item.getId().equals(10L);
+                })
+                .assertNext(item -> {
+                    assert !item.isCreated();
+                    assert item.getErrors().contains(NAME_IS_REQUIRED);
+                })
+                .assertNext(item -> {
+                    assert item.getIndex() == 2L;
+                    assert item.getErrors().equals(List.of(CAPACITY_ALREADY_EXISTS));
+                })
+                .assertNext(item -> {
+                    assert item.getErrors().equals(List.of(TECHNOLOGY_NOT_EXIST));
+                })
+                .verifyComplete();
+
+        verify(technologyClientPort, never()).getTechnologiesByIds(anyList()); // Sin cache
+        verify(capacityPersistencePort, times(1)).findExistingNames(anyList());
+        verify(capacityPersistencePort, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("SaveAll: Should bisect a failing chunk instead of validating every item")
+    void saveAll_WhenOneTechnologyMissing_ShouldBisectChunk() {
+        // Arrange
+        List<Capacity> capacities = IntStream.range(0, 16)
+                .mapToObj(i -> new Capacity(null, "Cap " + i, "Desc",
+                        i == 11 ? List.of(1L, 2L, 99L) : List.of(1L, 2L, 3L), null, null))
+                .toList();
+
+        when(technologyClientPort.existAllByIds(anyList()))
+                .thenAnswer(invocation -> Mono.just(!invocation.<List<Long>>getArgument(0).contains(99L)));
+        when(capacityPersistencePort.findExistingNames(anyList())).thenReturn(Flux.empty());
+        when(capacityPersistencePort.saveAll(anyList())).thenAnswer(invocation ->
+                Flux.fromIterable(invocation.<List<Capacity>>getArgument(0)));
+
+        // Act
+        Flux<CapacityBatchResult> result = capacityUseCase.saveAll(Flux.fromIterable(capacities));
+
+        // Assert
+        StepVerifier.create(result.filter(item -> !item.isCreated()))
+                .assertNext(item -> {
+                    assertEquals(Long.valueOf(11L), item.getIndex());
+                    assertEquals(List.of(TECHNOLOGY_NOT_EXIST), item.getErrors());
+                })
+                .verifyComplete();
+
+        // 1 validacion del bloque + 2 por cada nivel de la biseccion (log2(16) = 4), en lugar de 1 + 16
+        verify(technologyClientPort, times(9)).existAllByIds(anyList());
+    }
+
+    @Test
+    @DisplayName("SaveAll: Should fail the stream on infrastructure errors instead of reporting rows")
+    void saveAll_WhenDatabaseUnavailable_ShouldFailStream() {
+        // Arrange
+        Capacity first = new Capacity(null, "Backend", "Desc", List.of(1L, 2L, 3L), null, null);
+
+        when(technologyClientPort.existAllByIds(List.of(1L, 2L, 3L))).thenReturn(Mono.just(true));
+        when(capacityPersistencePort.findExistingNames(anyList())).thenReturn(Flux.empty());
+        when(capacityPersistencePort.saveAll(anyList()))
+                .thenReturn(Flux.error(new IllegalStateException("Connection refused")));
+
+        // Act & Assert
+        StepVerifier.create(capacityUseCase.saveAll(Flux.just(first)))
+                .expectErrorMessage("Connection refused")
+                .verify();
+
+        verify(capacityPersistencePort, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("SaveAll: Should fall back to single inserts when the chunk transaction fails")
+    void saveAll_WhenChunkFails_ShouldRetryItemsIndividually() {
+        // Arrange
+        Capacity first = new Capacity(null, "Backend", "Desc", List.of(1L, 2L, 3L), null, null);
+        Capacity second = new Capacity(null, "Frontend", "Desc", List.of(1L, 2L, 3L), null, null);
+
+        when(technologyClientPort.existAllByIds(List.of(1L, 2L, 3L))).thenReturn(Mono.just(true));
+        when(capacityPersistencePort.findExistingNames(anyList())).thenReturn(Flux.empty());
+        when(capacityPersistencePort.saveAll(anyList()))
+                .thenReturn(Flux.error(new DataIntegrityViolationException("Data too long")));
+        when(capacityPersistencePort.save(first)).thenReturn(Mono.just(first));
+        when(capacityPersistencePort.save(second))
+                .thenReturn(Mono.error(new DataIntegrityViolationException("Data too long")));
+
+        // Act
+        Flux<CapacityBatchResult> result = capacityUseCase.saveAll(Flux.just(first, second));
+
+        // Assert
+        StepVerifier.create(result)
+                .assertNext(item -> {
+                    assert item.isCreated();
+                })
+                .assertNext(item -> {
+                    assert item.getErrors().equals(List.of(CAPACITY_NOT_SAVED));
+                })
+                .verifyComplete();
+
+        verify(technologyClientPort, times(1)).existAllByIds(anyList()); // Una sola validacion por bloque
+    }
 
     @Test
     @DisplayName("GetCapacities: Should return enriched capacities with technologies")
@@ -140,7 +356,8 @@ class CapacityUseCaseTest {
         Long capId = 1L;
         List<Long> techIds = Arrays.asList(10L, 20L);
 
-        Capacity capacity = new Capacity(capId, "Java", "Desc", null, null, null);
+        // La pagina trae los ids de tecnologias agregados por capacidad
+        Capacity capacity = new Capacity(capId, "Java", "Desc", techIds, null, 2);
 
         // Mock de TechnologyResponse (DTO externo)
         TechnologyResponse techResp1 = new TechnologyResponse(10L, "Java", "Desc");
@@ -150,16 +367,12 @@ class CapacityUseCaseTest {
         when(capacityPersistencePort.findAllPaged(page, size, sort, direction))
                 .thenReturn(Flux.just(capacity));
 
-        // 2. Mockear la búsqueda de IDs de tecnologías para esa capacidad
-        when(capacityPersistencePort.findTechnologyIdsByCapacityId(capId))
-                .thenReturn(Flux.fromIterable(techIds));
-
-        // 3. Mockear la llamada al cliente externo para obtener detalles de tecnologías
+        // 2. Mockear la llamada al cliente externo para obtener detalles de tecnologías
         when(technologyClientPort.getTechnologiesByIds(techIds))
                 .thenReturn(Flux.just(techResp1, techResp2));
 
         // Act
-        Flux<Capacity> result = capacityUseCase.getCapacities(page, size, sort, direction);
+        Flux<Capacity> result = capacityUseCase.getCapacities(page, size, sort, direction, EnrichmentOptions.defaults());
 
         // Assert
         StepVerifier.create(result)
@@ -195,29 +408,22 @@ class CapacityUseCaseTest {
     void getCapacitiesByIds_ShouldReturnEnrichedCapacities() {
         // Arrange
         List<Long> ids = Arrays.asList(1L, 2L);
-        Capacity capacity1 = new Capacity(1L, "Cap 1", "Desc 1", null, null, null);
-        Capacity capacity2 = new Capacity(2L, "Cap 2", "Desc 2", null, null, null);
+        // La consulta ya trae los ids de tecnologias agregados por capacidad
+        Capacity capacity1 = new Capacity(1L, "Cap 1", "Desc 1", Arrays.asList(10L), null, null);
+        Capacity capacity2 = new Capacity(2L, "Cap 2", "Desc 2", Arrays.asList(20L), null, null);
 
-        // Datos para el enriquecimiento (simulando getCapacityWhitTechnologies)
-        List<Long> techIds1 = Arrays.asList(10L);
-        List<Long> techIds2 = Arrays.asList(20L);
         TechnologyResponse techResp1 = new TechnologyResponse(10L, "Java", "Desc");
         TechnologyResponse techResp2 = new TechnologyResponse(20L, "Python", "Desc");
 
-        // 1. Mockear la búsqueda de capacidades por IDs
-        when(capacityPersistencePort.findCapacitiesByIds(ids))
+        // 1. Mockear la búsqueda de capacidades con sus IDs de tecnologías (una sola consulta)
+        when(capacityPersistencePort.findCapacitiesWithTechnologyIds(ids))
                 .thenReturn(Flux.just(capacity1, capacity2));
 
-        // 2. Mockear la búsqueda de IDs de tecnologías (se llama por cada capacidad)
-        when(capacityPersistencePort.findTechnologyIdsByCapacityId(1L)).thenReturn(Flux.fromIterable(techIds1));
-        when(capacityPersistencePort.findTechnologyIdsByCapacityId(2L)).thenReturn(Flux.fromIterable(techIds2));
-
-        // 3. Mockear la llamada al cliente externo
-        when(technologyClientPort.getTechnologiesByIds(techIds1)).thenReturn(Flux.just(techResp1));
-        when(technologyClientPort.getTechnologiesByIds(techIds2)).thenReturn(Flux.just(techResp2));
+        // 2. Mockear la llamada al cliente externo (una sola llamada con la unión de ids)
+        when(technologyClientPort.getTechnologiesByIds(anyList())).thenReturn(Flux.just(techResp1, techResp2));
 
         // Act
-        Flux<Capacity> result = capacityUseCase.getCapacitiesByIds(ids);
+        Flux<Capacity> result = capacityUseCase.getCapacitiesByIds(ids, EnrichmentOptions.defaults());
 
         // Assert
         StepVerifier.create(result)
@@ -231,54 +437,203 @@ class CapacityUseCaseTest {
                 })
                 .verifyComplete();
 
-        verify(capacityPersistencePort).findCapacitiesByIds(ids);
+        verify(capacityPersistencePort).findCapacitiesWithTechnologyIds(ids);
+        verify(technologyClientPort, times(1)).getTechnologiesByIds(anyList());
     }
 
-// --- TESTS PARA deleteCapacities ---
+    @Test
+    @DisplayName("GetCapacities: Should request shared technologies only once")
+    void getCapacities_WhenTechnologiesShared_ShouldCallClientOnceWithDistinctIds() {
+        // Arrange
+        Capacity capacity1 = new Capacity(1L, "Cap 1", "Desc 1", List.of(10L, 20L), null, 2);
+        Capacity capacity2 = new Capacity(2L, "Cap 2", "Desc 2", List.of(20L, 30L), null, 2);
+        // La capacidad 3 no tiene tecnologías asociadas
+        Capacity capacity3 = new Capacity(3L, "Cap 3", "Desc 3", List.of(), null, 0);
+
+        when(capacityPersistencePort.findAllPaged(0, 10, "name", "asc"))
+                .thenReturn(Flux.just(capacity1, capacity2, capacity3));
+        when(technologyClientPort.getTechnologiesByIds(anyList())).thenReturn(Flux.just(
+                new TechnologyResponse(10L, "Java", "Desc"),
+                new TechnologyResponse(20L, "Spring", "Desc"),
+                new TechnologyResponse(30L, "Kotlin", "Desc")));
+
+        // Act
+        Flux<Capacity> result = capacityUseCase.getCapacities(0, 10, "name", "asc", EnrichmentOptions.defaults());
+
+        // Assert
+        StepVerifier.create(result)
+                .assertNext(cap -> {
+                    assert cap.getId().equals(1L);
+                    assert cap.getTechnologyCount() == 2;
+                })
+                .assertNext(cap -> {
+                    assert cap.getId().equals(2L);
+                    assert cap.getTechnologies().get(1).getName().equals("Kotlin");
+                })
+                .assertNext(cap -> {
+                    assert cap.getId().equals(3L);
+                    assert cap.getTechnologyCount() == 0;
+                })
+                .verifyComplete();
+
+        verify(technologyClientPort, times(1)).getTechnologiesByIds(argThat(ids ->
+                ids.size() == 3 && ids.containsAll(List.of(10L, 20L, 30L))));
+    }
 
     @Test
-    @DisplayName("DeleteCapacities: Should delete technologies and capacities when orphans exist")
-    void deleteCapacities_WhenOrphansExist_ShouldDeleteBoth() {
+    @DisplayName("GetCapacitiesAfter: Should keep the stored count the page was sorted by")
+    void getCapacitiesAfter_WhenStoredCountDrifts_ShouldKeepStoredCount() {
         // Arrange
-        List<Long> capacityIds = Arrays.asList(1L, 2L);
-        List<Long> orphanedTechIds = Arrays.asList(100L, 101L);
+        PageCursor cursor = new PageCursor("technologyCount", "asc", 1L, "3");
+        // technology_count desalineado con los enlaces (lo corrige el job de reparacion)
+        Capacity capacity = new Capacity(2L, "Cap 2", "Desc 2", List.of(10L, 20L, 30L), null, 4);
 
-        // 1. Simular que existen tecnologías que quedarían huérfanas
-        when(capacityPersistencePort.findTechnologiesNotReferencedInOtherCapacities(capacityIds))
-                .thenReturn(Flux.fromIterable(orphanedTechIds));
+        when(capacityPersistencePort.findPageAfter(cursor, 10)).thenReturn(Flux.just(capacity));
+        when(technologyClientPort.getTechnologiesByIds(anyList())).thenReturn(Flux.just(
+                new TechnologyResponse(10L, "Java", "Desc"),
+                new TechnologyResponse(20L, "Spring", "Desc"),
+                new TechnologyResponse(30L, "Kotlin", "Desc")));
 
-        // 2. Simular el borrado exitoso de esas tecnologías
-        when(technologyClientPort.deleteTechnolgies(orphanedTechIds))
-                .thenReturn(Mono.just(true));
+        // Act
+        Flux<Capacity> result = capacityUseCase.getCapacitiesAfter(cursor, 10, EnrichmentOptions.defaults());
 
-        // 3. Simular el borrado de las capacidades
-        when(capacityPersistencePort.deleteCapacities(capacityIds))
-                .thenReturn(Mono.just(true));
+        // Assert
+        StepVerifier.create(result)
+                .assertNext(cap -> {
+                    assert cap.getTechnologies().size() == 3;
+                    assert cap.getTechnologyCount() == 4;
+                    assert PageCursor.after(cap, "technologyCount", "asc").getLastValue().equals("4");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GetCapacities: Should not call the technology service when technologies are not requested")
+    void getCapacities_WhenTechnologiesNotIncluded_ShouldSkipEnrichment() {
+        // Arrange
+        Capacity capacity = new Capacity(1L, "Cap 1", "Desc 1", List.of(10L, 20L, 30L), null, 3);
+
+        when(capacityPersistencePort.findAllPaged(0, 10, "name", "asc")).thenReturn(Flux.just(capacity));
 
         // Act
-        Mono<Boolean> result = capacityUseCase.deleteCapacities(capacityIds);
+        Flux<Capacity> result = capacityUseCase.getCapacities(0, 10, "name", "asc", new EnrichmentOptions(null, false));
 
         // Assert
         StepVerifier.create(result)
-                .expectNext(true)
+                .assertNext(cap -> {
+                    assert cap.getTechnologyCount() == 3;
+                    assert cap.getTechnologies() == null;
+                })
                 .verifyComplete();
 
-        // Verificaciones
-        verify(technologyClientPort).deleteTechnolgies(orphanedTechIds); // Se debió llamar
-        verify(capacityPersistencePort).deleteCapacities(capacityIds);   // Se debió llamar
+        verifyNoInteractions(technologyClientPort);
     }
 
     @Test
-    @DisplayName("DeleteCapacities: Should only delete capacities when no orphans exist")
-    void deleteCapacities_WhenNoOrphans_ShouldSkipTechDelete() {
+    @DisplayName("GetCapacities: Should report the same count whether technologies are requested or not")
+    void getCapacities_WithOrWithoutTechnologies_ShouldReportStoredCount() {
         // Arrange
-        List<Long> capacityIds = Arrays.asList(1L, 2L);
+        when(capacityPersistencePort.findAllPaged(0, 10, "name", "asc")).thenAnswer(invocation ->
+                Flux.just(new Capacity(1L, "Cap 1", "Desc 1", List.of(10L, 20L), null, 3)));
+        when(technologyClientPort.getTechnologiesByIds(anyList())).thenReturn(Flux.just(
+                new TechnologyResponse(10L, "Java", "Desc"),
+                new TechnologyResponse(20L, "Spring", "Desc")));
+
+        // Act & Assert
+        StepVerifier.create(capacityUseCase.getCapacities(0, 10, "name", "asc", EnrichmentOptions.defaults()))
+                .assertNext(cap -> assertEquals(Integer.valueOf(3), cap.getTechnologyCount()))
+                .verifyComplete();
+        StepVerifier.create(capacityUseCase.getCapacities(0, 10, "name", "asc", new EnrichmentOptions(null, false)))
+                .assertNext(cap -> assertEquals(Integer.valueOf(3), cap.getTechnologyCount()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GetCapacities: Should split technology lookups in ordered batches")
+    void getCapacities_WhenManyTechnologies_ShouldBatchRemoteCallsInOrder() {
+        // Arrange
+        ReflectionTestUtils.setField(capacityUseCase, "enrichmentBatchSize", 2);
+        Capacity capacity1 = new Capacity(1L, "Cap 1", "Desc 1", List.of(10L, 20L, 30L), null, 3);
+        Capacity capacity2 = new Capacity(2L, "Cap 2", "Desc 2", List.of(40L), null, 1);
 
-        // 1. Simular que NO hay tecnologías huérfanas (Flux vacío)
-        when(capacityPersistencePort.findTechnologiesNotReferencedInOtherCapacities(capacityIds))
-                .thenReturn(Flux.empty());
+        when(capacityPersistencePort.findAllPaged(0, 10, "name", "asc"))
+                .thenReturn(Flux.just(capacity1, capacity2));
+        when(technologyClientPort.getTechnologiesByIds(anyList())).thenAnswer(invocation -> {
+            List<Long> chunk = invocation.getArgument(0);
+            return Flux.fromIterable(chunk).map(id -> new TechnologyResponse(id, "Tech " + id, "Desc"));
+        });
+
+        // Act
+        Flux<Capacity> result = capacityUseCase.getCapacities(0, 10, "name", "asc", new EnrichmentOptions(1, true));
 
-        // 2. Simular el borrado de las capacidades
+        // Assert
+        StepVerifier.create(result)
+                .assertNext(cap -> {
+                    assert cap.getId().equals(1L);
+                    assert cap.getTechnologies().get(2).getName().equals("Tech 30");
+                })
+                .assertNext(cap -> {
+                    assert cap.getId().equals(2L);
+                    assert cap.getTechnologyCount() == 1;
+                })
+                .verifyComplete();
+
+        verify(technologyClientPort, times(2)).getTechnologiesByIds(anyList());
+    }
+
+    @Test
+    @DisplayName("GetCapacitiesAfter: Should read the page after the cursor and enrich it")
+    void getCapacitiesAfter_ShouldReturnEnrichedPage() {
+        // Arrange
+        PageCursor cursor = new PageCursor("name", "asc", 1L, "Backend");
+        Capacity capacity = new Capacity(2L, "Frontend", "Desc", List.of(10L), null, null);
+
+        when(capacityPersistencePort.findPageAfter(cursor, 10)).thenReturn(Flux.just(capacity));
+        when(technologyClientPort.getTechnologiesByIds(List.of(10L)))
+                .thenReturn(Flux.just(new TechnologyResponse(10L, "Angular", "Desc")));
+
+        // Act
+        Flux<Capacity> result = capacityUseCase.getCapacitiesAfter(cursor, 10, EnrichmentOptions.defaults());
+
+        // Assert
+        StepVerifier.create(result)
+                .assertNext(cap -> {
+                    assert cap.getId().equals(2L);
+                    assert cap.getTechnologies().get(0).getName().equals("Angular");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("GetCapacitiesByTechnology: Should page from the cursor and enrich without a links query")
+    void getCapacitiesByTechnology_ShouldEnrichPage() {
+        // Arrange
+        Capacity capacity = new Capacity(5L, "Cap 5", "Desc", List.of(10L), null, 1);
+        when(capacityPersistencePort.findCapacitiesByTechnology(10L, 4L, 10)).thenReturn(Flux.just(capacity));
+        when(technologyClientPort.getTechnologiesByIds(List.of(10L)))
+                .thenReturn(Flux.just(new TechnologyResponse(10L, "Java", "Desc")));
+
+        // Act
+        Flux<Capacity> result = capacityUseCase.getCapacitiesByTechnology(10L, 4L, 10, EnrichmentOptions.defaults());
+
+        // Assert
+        StepVerifier.create(result)
+                .assertNext(cap -> {
+                    assert cap.getId().equals(5L);
+                    assert cap.getTechnologies().get(0).getName().equals("Java");
+                })
+                .verifyComplete();
+    }
+
+// --- TESTS PARA deleteCapacities ---
+
+    @Test
+    @DisplayName("DeleteCapacities: Should delete in the database without waiting for the technology service")
+    void deleteCapacities_ShouldNotCallTechnologyService() {
+        // Arrange
+        List<Long> capacityIds = Arrays.asList(1L, 2L);
+
+        // Las tecnologias huerfanas se encolan dentro del borrado de la persistencia
         when(capacityPersistencePort.deleteCapacities(capacityIds))
                 .thenReturn(Mono.just(true));
 
@@ -290,35 +645,95 @@ class CapacityUseCaseTest {
                 .expectNext(true)
                 .verifyComplete();
 
-        // Verificaciones Clave
-        verify(technologyClientPort, never()).deleteTechnolgies(anyList()); // NO se debió llamar
         verify(capacityPersistencePort).deleteCapacities(capacityIds);
+        verify(technologyClientPort, never()).deleteTechnolgies(anyList());
     }
 
     @Test
-    @DisplayName("DeleteCapacities: Should return false if technology deletion fails")
-    void deleteCapacities_WhenTechDeleteFails_ShouldReturnFalse() {
+    @DisplayName("DeleteCapacitiesInChunks: Should delete each chunk separately and keep going after a failure")
+    void deleteCapacitiesInChunks_ShouldReportProgressPerChunk() {
         // Arrange
-        List<Long> capacityIds = Arrays.asList(1L);
-        List<Long> orphanedTechIds = Arrays.asList(100L);
+        ReflectionTestUtils.setField(capacityUseCase, "deleteChunkSize", 2);
+        when(capacityPersistencePort.deleteCapacities(List.of(1L, 2L))).thenReturn(Mono.just(true));
+        when(capacityPersistencePort.deleteCapacities(List.of(3L, 4L)))
+                .thenReturn(Mono.error(new IllegalStateException("lock wait timeout")));
+        when(capacityPersistencePort.deleteCapacities(List.of(5L))).thenReturn(Mono.just(true));
+
+        // Act
+        Flux<CapacityDeleteChunkResult> result = capacityUseCase.deleteCapacitiesInChunks(Flux.just(1L, 2L, 3L, 4L, 5L));
+
+        // Assert
+        StepVerifier.create(result)
+                .assertNext(chunk -> {
+                    assert chunk.getChunk() == 0L && chunk.isDeleted();
+                    assert chunk.getProcessed() == 2L;
+                })
+                .assertNext(chunk -> {
+                    assert !chunk.isDeleted();
+                    assert chunk.getIds().equals(List.of(3L, 4L));
+                    assert chunk.getErrors().equals(List.of(CAPACITIES_NOT_DELETED));
+                })
+                .assertNext(chunk -> {
+                    assert chunk.getChunk() == 2L && chunk.isDeleted();
+                    assert chunk.getProcessed() == 5L;
+                })
+                .verifyComplete();
 
-        // 1. Hay huérfanas
-        when(capacityPersistencePort.findTechnologiesNotReferencedInOtherCapacities(capacityIds))
-                .thenReturn(Flux.fromIterable(orphanedTechIds));
+        verify(technologyClientPort, never()).deleteTechnolgies(anyList());
+    }
 
-        // 2. El borrado de tecnologías falla (retorna false)
-        when(technologyClientPort.deleteTechnolgies(orphanedTechIds))
-                .thenReturn(Mono.just(false));
+    @Test
+    @DisplayName("DeleteCapacitiesInChunks: Should report a chunk as failed when the deletion is not confirmed")
+    void deleteCapacitiesInChunks_ShouldReportFailedChunk_WhenNotDeleted() {
+        // Arrange
+        ReflectionTestUtils.setField(capacityUseCase, "deleteChunkSize", 2);
+        when(capacityPersistencePort.deleteCapacities(List.of(1L, 2L))).thenReturn(Mono.just(false));
+        when(capacityPersistencePort.deleteCapacities(List.of(3L))).thenReturn(Mono.empty());
 
         // Act
-        Mono<Boolean> result = capacityUseCase.deleteCapacities(capacityIds);
+        Flux<CapacityDeleteChunkResult> result = capacityUseCase.deleteCapacitiesInChunks(Flux.just(1L, 2L, 3L));
 
         // Assert
         StepVerifier.create(result)
-                .expectNext(false)
+                .assertNext(chunk -> {
+                    assert chunk.getChunk() == 0L && !chunk.isDeleted();
+                    assert chunk.getProcessed() == 2L;
+                    assert chunk.getErrors().equals(List.of(CAPACITIES_NOT_DELETED));
+                })
+                .assertNext(chunk -> {
+                    assert chunk.getChunk() == 1L && !chunk.isDeleted();
+                    assert chunk.getProcessed() == 3L;
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("StreamCapacitiesByIds: Should deduplicate ids and query them in bounded chunks")
+    void streamCapacitiesByIds_ShouldQueryDistinctIdsInChunks() {
+        // Arrange
+        ReflectionTestUtils.setField(capacityUseCase, "byIdsChunkSize", 2);
+        ReflectionTestUtils.setField(capacityUseCase, "byIdsMaxConcurrency", 2);
+        Capacity capacity1 = new Capacity(1L, "Cap 1", "Desc 1", List.of(10L), null, null);
+        Capacity capacity2 = new Capacity(2L, "Cap 2", "Desc 2", List.of(10L), null, null);
+        Capacity capacity3 = new Capacity(3L, "Cap 3", "Desc 3", List.of(), null, null);
+
+        when(capacityPersistencePort.findCapacitiesWithTechnologyIds(List.of(1L, 2L)))
+                .thenReturn(Flux.just(capacity1, capacity2));
+        when(capacityPersistencePort.findCapacitiesWithTechnologyIds(List.of(3L)))
+                .thenReturn(Flux.just(capacity3));
+        when(technologyClientPort.getTechnologiesByIds(anyList()))
+                .thenReturn(Flux.just(new TechnologyResponse(10L, "Java", "Desc")));
+
+        // Act
+        Flux<Capacity> result = capacityUseCase.streamCapacitiesByIds(
+                Flux.just(1L, 2L, 1L, 3L, 2L), EnrichmentOptions.defaults());
+
+        // Assert
+        StepVerifier.create(result.map(Capacity::getId).collectList())
+                .assertNext(ids -> assertEquals(List.of(1L, 2L, 3L), ids.stream().sorted().toList()))
                 .verifyComplete();
 
-        // Verificaciones: No se debe intentar borrar las capacidades si falló lo anterior
-        verify(capacityPersistencePort, never()).deleteCapacities(anyList());
+        verify(capacityPersistencePort).findCapacitiesWithTechnologyIds(List.of(1L, 2L));
+        verify(capacityPersistencePort).findCapacitiesWithTechnologyIds(List.of(3L));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,149 @@
+package com.pragma.ms_capacidades.domain.usecase;
+
+import com.pragma.ms_capacidades.domain.model.TechnologyDeletion;
+import com.pragma.ms_capacidades.domain.spi.ITechnologyOutboxPersistencePort;
+import com.pragma.ms_capacidades.domain.spi.TechnologyClientPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TechnologyOutboxUseCaseTest {
+
+    @Mock
+    private ITechnologyOutboxPersistencePort technologyOutboxPersistencePort;
+    @Mock
+    private TechnologyClientPort technologyClientPort;
+
+    @InjectMocks
+    private TechnologyOutboxUseCase technologyOutboxUseCase;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(technologyOutboxUseCase, "batchSize", 2);
+        ReflectionTestUtils.setField(technologyOutboxUseCase, "initialBackoff", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(technologyOutboxUseCase, "maxBackoff", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(technologyOutboxUseCase, "maxAttempts", 5);
+        ReflectionTestUtils.setField(technologyOutboxUseCase, "claimLease", Duration.ofMinutes(1));
+    }
+
+    @Test
+    @DisplayName("Relay: Should delete the technologies and remove the delivered rows, batch after batch")
+    void relay_WhenServiceAccepts_ShouldRemoveRowsUntilDrained() {
+        // Arrange
+        when(technologyOutboxPersistencePort.claimPendingDeletions(2, Duration.ofMinutes(1))).thenReturn(
+                Flux.just(new TechnologyDeletion(1L, 100L, 0, false), new TechnologyDeletion(2L, 101L, 0, false)),
+                Flux.just(new TechnologyDeletion(3L, 102L, 0, false)));
+        when(technologyClientPort.deleteTechnolgies(anyList())).thenReturn(Mono.just(true));
+        when(technologyOutboxPersistencePort.removeDeletions(anyList())).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(technologyOutboxUseCase.relayTechnologyDeletions())
+                .expectNext(3)
+                .verifyComplete();
+
+        verify(technologyClientPort).deleteTechnolgies(List.of(100L, 101L));
+        verify(technologyClientPort).deleteTechnolgies(List.of(102L));
+        verify(technologyOutboxPersistencePort).removeDeletions(List.of(1L, 2L));
+        verify(technologyOutboxPersistencePort).removeDeletions(List.of(3L));
+    }
+
+    @Test
+    @DisplayName("Relay: Should postpone the batch with exponential backoff when the service fails")
+    void relay_WhenServiceFails_ShouldScheduleRetry() {
+        // Arrange
+        when(technologyOutboxPersistencePort.claimPendingDeletions(2, Duration.ofMinutes(1)))
+                .thenReturn(Flux.just(new TechnologyDeletion(1L, 100L, 3, false)));
+        when(technologyClientPort.deleteTechnolgies(List.of(100L)))
+                .thenReturn(Mono.error(new IllegalStateException("down")));
+        when(technologyOutboxPersistencePort.scheduleRetry(List.of(1L), Duration.ofSeconds(16)))
+                .thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(technologyOutboxUseCase.relayTechnologyDeletions())
+                .expectNext(1)
+                .verifyComplete();
+
+        verify(technologyOutboxPersistencePort, never()).removeDeletions(anyList());
+    }
+
+    @Test
+    @DisplayName("Relay: Should mark rows as failed once they exhaust max attempts instead of retrying them")
+    void relay_WhenAttemptsExhausted_ShouldMarkFailed() {
+        // Arrange
+        when(technologyOutboxPersistencePort.claimPendingDeletions(2, Duration.ofMinutes(1))).thenReturn(
+                Flux.just(new TechnologyDeletion(1L, 100L, 4, false), new TechnologyDeletion(2L, 101L, 1, false)),
+                Flux.empty());
+        when(technologyClientPort.deleteTechnolgies(List.of(100L, 101L))).thenReturn(Mono.just(false));
+        when(technologyOutboxPersistencePort.markFailed(List.of(1L))).thenReturn(Mono.empty());
+        when(technologyOutboxPersistencePort.scheduleRetry(List.of(2L), Duration.ofSeconds(4)))
+                .thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(technologyOutboxUseCase.relayTechnologyDeletions())
+                .expectNext(2)
+                .verifyComplete();
+
+        verify(technologyOutboxPersistencePort).markFailed(List.of(1L));
+        verify(technologyOutboxPersistencePort, never()).removeDeletions(anyList());
+    }
+
+    @Test
+    @DisplayName("Relay: Should discard technologies that were linked again without calling the service")
+    void relay_WhenTechnologyReferencedAgain_ShouldDiscardIt() {
+        // Arrange
+        when(technologyOutboxPersistencePort.claimPendingDeletions(2, Duration.ofMinutes(1)))
+                .thenReturn(Flux.just(new TechnologyDeletion(1L, 100L, 0, true)));
+        when(technologyOutboxPersistencePort.removeDeletions(List.of(1L))).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(technologyOutboxUseCase.relayTechnologyDeletions())
+                .expectNext(1)
+                .verifyComplete();
+
+        verifyNoInteractions(technologyClientPort);
+    }
+
+    @Test
+    @DisplayName("Relay: Should do nothing when the outbox is empty")
+    void relay_WhenEmpty_ShouldReturnZero() {
+        // Arrange
+        when(technologyOutboxPersistencePort.claimPendingDeletions(anyInt(), any(Duration.class))).thenReturn(Flux.empty());
+
+        // Act & Assert
+        StepVerifier.create(technologyOutboxUseCase.relayTechnologyDeletions())
+                .expectNext(0)
+                .verifyComplete();
+
+        verifyNoInteractions(technologyClientPort);
+    }
+
+    @Test
+    @DisplayName("Backoff: Should double per attempt up to the configured maximum")
+    void backoff_ShouldBeCapped() {
+        // Act & Assert
+        assertEquals(Duration.ofSeconds(2), technologyOutboxUseCase.backoff(0));
+        assertEquals(Duration.ofSeconds(8), technologyOutboxUseCase.backoff(2));
+        assertEquals(Duration.ofMinutes(10), technologyOutboxUseCase.backoff(30));
+    }
+}
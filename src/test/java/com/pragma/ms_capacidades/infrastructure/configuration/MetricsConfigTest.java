@@ -0,0 +1,47 @@
+package com.pragma.ms_capacidades.infrastructure.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MetricsConfigTest {
+
+    private final Scheduler scheduler = Schedulers.newBoundedElastic(2, 10, "metrics-test");
+
+    @AfterEach
+    void tearDown() {
+        scheduler.dispose();
+    }
+
+    @Test
+    @DisplayName("Scheduler metrics: Should keep one gauge per scheduler while workers are created and evicted")
+    void schedulerMetrics_WhenWorkersRecreated_ShouldNotAddMeters() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BiFunction<Scheduler, ScheduledExecutorService, ScheduledExecutorService> decorator =
+                MetricsConfig.schedulerMetrics(registry);
+        ScheduledThreadPoolExecutor evicted = new ScheduledThreadPoolExecutor(1);
+        ScheduledThreadPoolExecutor live = new ScheduledThreadPoolExecutor(1);
+        evicted.prestartCoreThread();
+        live.prestartCoreThread();
+
+        // Act
+        decorator.apply(scheduler, evicted);
+        decorator.apply(scheduler, live);
+        evicted.shutdownNow();
+
+        // Assert
+        assertEquals(3, registry.getMeters().size()); // pool.size, active y queued una sola vez
+        assertEquals(1.0, registry.get("reactor.executor.pool.size").gauge().value()); // Solo el worker vivo
+        live.shutdownNow();
+    }
+}
@@ -0,0 +1,82 @@
+package com.pragma.ms_capacidades.infrastructure.configuration;
+
+import com.pragma.ms_capacidades.domain.spi.TechnologyClientPort;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PortMetricsAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TechnologyClientPort technologyClientPort;
+    private TechnologyClientPort timedPort;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        technologyClientPort = mock(TechnologyClientPort.class);
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(technologyClientPort);
+        factory.addAspect(new PortMetricsAspect(meterRegistry));
+        timedPort = factory.getProxy();
+    }
+
+    @Test
+    @DisplayName("Metrics: Should time the call on subscription and tag it by port, method and outcome")
+    void portCall_WhenSubscribed_ShouldRecordTimer() {
+        // Arrange
+        when(technologyClientPort.existAllByIds(List.of(1L))).thenReturn(Mono.just(true));
+
+        // Act
+        Mono<Boolean> result = timedPort.existAllByIds(List.of(1L));
+
+        // Assert
+        assertNull(findTimer("existAllByIds", "success")); // Aun no hay suscripcion
+        StepVerifier.create(result)
+                .expectNext(true)
+                .verifyComplete();
+
+        assertEquals(1, findTimer("existAllByIds", "success").count());
+    }
+
+    @Test
+    @DisplayName("Metrics: Should count errors by exception type")
+    void portCall_WhenFails_ShouldCountError() {
+        // Arrange
+        when(technologyClientPort.getTechnologiesByIds(List.of(1L)))
+                .thenReturn(Flux.error(new IllegalStateException("down")));
+
+        // Act & Assert
+        StepVerifier.create(timedPort.getTechnologiesByIds(List.of(1L)))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        assertEquals(1, findTimer("getTechnologiesByIds", "error").count());
+        assertEquals(1.0, meterRegistry.get(PortMetricsAspect.ERRORS_METRIC)
+                .tag("port", "TechnologyClientPort")
+                .tag("exception", "IllegalStateException")
+                .counter()
+                .count());
+    }
+
+    private Timer findTimer(String method, String outcome) {
+        return meterRegistry.find(PortMetricsAspect.CALLS_METRIC)
+                .tag("port", "TechnologyClientPort")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .timer();
+    }
+}
@@ -1,30 +1,47 @@
 package com.pragma.ms_capacidades.infrastructure.input.rest.handler;
 
+import com.pragma.ms_capacidades.application.dto.CapacityBatchResponse;
+import com.pragma.ms_capacidades.application.dto.CapacityDeleteChunkResponse;
 import com.pragma.ms_capacidades.application.dto.CapacityRequest;
 import com.pragma.ms_capacidades.application.dto.CapacityResponse;
 import com.pragma.ms_capacidades.application.dto.PageResponse;
 import com.pragma.ms_capacidades.application.helper.ICapacityHelper;
+import com.pragma.ms_capacidades.domain.exception.BadRequestException;
+import com.pragma.ms_capacidades.infrastructure.cache.CatalogVersion;
+import com.pragma.ms_capacidades.infrastructure.input.rest.router.CapacityRouter;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.mock.web.reactive.function.server.MockServerRequest;
+import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.reactive.function.server.ServerResponse;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+
+import static com.pragma.ms_capacidades.domain.utils.Constants.INVALID_FIELDS;
+import static com.pragma.ms_capacidades.domain.utils.Constants.TOO_MANY_IDS;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,10 +49,14 @@ class CapacityHandlerTest {
 
     @Mock
     private ICapacityHelper capacityHelper;
+    @Mock
+    private CatalogVersion catalogVersion;
 
     @InjectMocks
     private CapacityHandler capacityHandler;
 
+    private static final String ETAG = "\"abc-1-0\"";
+
     @Test
     @DisplayName("Create Capacity: Should return 200 OK on successful creation")
     void createCapacity_ShouldReturnOk() {
@@ -60,14 +81,140 @@ class CapacityHandlerTest {
         verify(capacityHelper).createCapacity(any(CapacityRequest.class));
     }
 
+    @Test
+    @DisplayName("Create Capacities: Should stream per-item results as NDJSON")
+    void createCapacities_ShouldReturnNdjson() {
+        // Arrange
+        MockServerRequest request = MockServerRequest.builder()
+                .body(Flux.just(new CapacityRequest(), new CapacityRequest()));
+
+        when(capacityHelper.createCapacities(any()))
+                .thenReturn(Flux.just(new CapacityBatchResponse(0L, 1L, "Backend", true, null)));
+
+        // Act
+        Mono<ServerResponse> result = capacityHandler.createCapacities(request);
+
+        // Assert
+        StepVerifier.create(result)
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.OK, response.statusCode());
+                    assertEquals(MediaType.APPLICATION_NDJSON, response.headers().getContentType());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Delete Capacities In Chunks: Should stream per-chunk progress as NDJSON")
+    void deleteCapacitiesInChunks_ShouldReturnNdjson() {
+        // Arrange
+        MockServerRequest request = MockServerRequest.builder()
+                .body(Flux.just(1L, 2L, 3L));
+
+        when(capacityHelper.deleteCapacitiesInChunks(any()))
+                .thenReturn(Flux.just(new CapacityDeleteChunkResponse(0L, List.of(1L, 2L, 3L), true, 3L, null)));
+
+        // Act
+        Mono<ServerResponse> result = capacityHandler.deleteCapacitiesInChunks(request);
+
+        // Assert
+        StepVerifier.create(result)
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.OK, response.statusCode());
+                    assertEquals(MediaType.APPLICATION_NDJSON, response.headers().getContentType());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Stream Capacities By Ids: Should read the ids from the body and stream NDJSON when requested")
+    void streamCapacitiesByIds_WhenAcceptNdjson_ShouldReturnNdjson() {
+        // Arrange
+        MockServerRequest request = MockServerRequest.builder()
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE)
+                .queryParam("fields", "id,name")
+                .body(Flux.just(1L, 2L));
+
+        when(capacityHelper.streamCapacitiesByIds(any(), eq(null), eq(Set.of("id", "name"))))
+                .thenReturn(Flux.just(new CapacityResponse()));
+
+        // Act
+        Mono<ServerResponse> result = capacityHandler.streamCapacitiesByIds(request);
+
+        // Assert
+        StepVerifier.create(result)
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.OK, response.statusCode());
+                    assertEquals(MediaType.APPLICATION_NDJSON, response.headers().getContentType());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Decode Binary Ids: Should decode big-endian longs split across buffers")
+    void decodeBinaryIds_WhenIdSpansBuffers_ShouldCarryPartialBytes() {
+        // Arrange
+        byte[] body = ByteBuffer.allocate(2 * Long.BYTES).putLong(7L).putLong(300_000_000_000L).array();
+        DefaultDataBufferFactory factory = DefaultDataBufferFactory.sharedInstance;
+        Flux<DataBuffer> buffers = Flux.just(
+                factory.wrap(Arrays.copyOfRange(body, 0, 3)),
+                factory.wrap(Arrays.copyOfRange(body, 3, 11)),
+                factory.wrap(Arrays.copyOfRange(body, 11, 16)));
+
+        // Act & Assert
+        StepVerifier.create(CapacityHandler.decodeBinaryIds(buffers))
+                .expectNext(7L, 300_000_000_000L)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Decode Binary Ids: Should reject a body that ends in the middle of an id")
+    void decodeBinaryIds_WhenTruncated_ShouldFail() {
+        // Arrange
+        Flux<DataBuffer> buffers = Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(new byte[Long.BYTES + 5]));
+
+        // Act & Assert
+        StepVerifier.create(CapacityHandler.decodeBinaryIds(buffers))
+                .expectNext(0L)
+                .expectError(BadRequestException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Limit Ids: Should fail with BadRequest once the body exceeds the id limit")
+    void limitIds_WhenTooManyIds_ShouldFail() {
+        // Act & Assert
+        StepVerifier.create(CapacityHandler.limitIds(Flux.range(0, CapacityHandler.MAX_BODY_IDS + 1).map(Long::valueOf)))
+                .expectNextCount(CapacityHandler.MAX_BODY_IDS)
+                .expectErrorMessage(TOO_MANY_IDS)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Stream Capacities By Ids: Should reject an oversized binary body before responding")
+    void streamCapacitiesByIds_WhenBinaryBodyTooLarge_ShouldReturnBadRequest() {
+        // Arrange
+        MockServerRequest request = MockServerRequest.builder()
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE)
+                .header(HttpHeaders.CONTENT_LENGTH, String.valueOf((CapacityHandler.MAX_BODY_IDS + 1L) * Long.BYTES))
+                .body(Flux.empty());
+
+        // Act & Assert
+        StepVerifier.create(capacityHandler.streamCapacitiesByIds(request))
+                .expectError(BadRequestException.class)
+                .verify();
+
+        verifyNoInteractions(capacityHelper);
+    }
+
     @Test
     @DisplayName("List Capacities: Should use default params and return 200 OK")
     void listCapacities_WithDefaultParams_ShouldReturnOk() {
         // Arrange
+        when(catalogVersion.etag()).thenReturn(ETAG);
         MockServerRequest request = MockServerRequest.builder().build(); // No query params
-        PageResponse<CapacityResponse> pageResponse = new PageResponse<>(0,10, 0, Collections.emptyList());
+        PageResponse<CapacityResponse> pageResponse = new PageResponse<>(0,10, 0, Collections.emptyList(), null);
 
-        when(capacityHelper.getCapacities(0, 10, "name", "asc"))
+        when(capacityHelper.getCapacities(0, 10, "name", "asc", null, Set.of()))
                 .thenReturn(Mono.just(pageResponse));
 
         // Act
@@ -83,16 +230,18 @@ class CapacityHandlerTest {
     @DisplayName("List Capacities: Should use provided params and return 200 OK")
     void listCapacities_WithCustomParams_ShouldReturnOk() {
         // Arrange
+        when(catalogVersion.etag()).thenReturn(ETAG);
         MockServerRequest request = MockServerRequest.builder()
                 .queryParam("page", "2")
                 .queryParam("size", "5")
                 .queryParam("sortBy", "technologyCount")
                 .queryParam("direction", "desc")
+                .queryParam("concurrency", "2")
                 .build();
 
-        PageResponse<CapacityResponse> pageResponse = new PageResponse<>(0,10, 0, Collections.emptyList());
+        PageResponse<CapacityResponse> pageResponse = new PageResponse<>(0,10, 0, Collections.emptyList(), null);
 
-        when(capacityHelper.getCapacities(2, 5, "technologyCount", "desc"))
+        when(capacityHelper.getCapacities(2, 5, "technologyCount", "desc", 2, Set.of()))
                 .thenReturn(Mono.just(pageResponse));
 
         // Act
@@ -104,10 +253,109 @@ class CapacityHandlerTest {
                 .verifyComplete();
     }
 
+    @Test
+    @DisplayName("List Capacities: Should use keyset mode when cursor is provided")
+    void listCapacities_WithCursor_ShouldUseCursorMode() {
+        // Arrange
+        when(catalogVersion.etag()).thenReturn(ETAG);
+        MockServerRequest request = MockServerRequest.builder()
+                .queryParam("cursor", "abc")
+                .queryParam("size", "5")
+                .build();
+
+        PageResponse<CapacityResponse> pageResponse = new PageResponse<>(0, 5, 0, Collections.emptyList(), null);
+
+        when(capacityHelper.getCapacitiesByCursor("abc", 5, null, Set.of()))
+                .thenReturn(Mono.just(pageResponse));
+
+        // Act
+        Mono<ServerResponse> result = capacityHandler.listCapacities(request);
+
+        // Assert
+        StepVerifier.create(result)
+                .assertNext(response -> assertEquals(HttpStatus.OK, response.statusCode()))
+                .verifyComplete();
+
+        verify(capacityHelper).getCapacitiesByCursor("abc", 5, null, Set.of());
+    }
+
+    @Test
+    @DisplayName("List Capacities: Should expose the catalog version as ETag")
+    void listCapacities_ShouldReturnETag() {
+        // Arrange
+        when(catalogVersion.etag()).thenReturn(ETAG);
+        MockServerRequest request = MockServerRequest.builder().build();
+        when(capacityHelper.getCapacities(0, 10, "name", "asc", null, Set.of()))
+                .thenReturn(Mono.just(new PageResponse<>(0, 10, 0, Collections.emptyList(), null)));
+
+        // Act & Assert
+        StepVerifier.create(capacityHandler.listCapacities(request))
+                .assertNext(response -> assertEquals(ETAG, response.headers().getETag()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("List Capacities: Should return 304 without querying when If-None-Match matches")
+    void listCapacities_WhenETagMatches_ShouldReturnNotModified() {
+        // Arrange
+        when(catalogVersion.etag()).thenReturn(ETAG);
+        MockServerRequest request = MockServerRequest.builder()
+                .header(HttpHeaders.IF_NONE_MATCH, "\"old\", W/" + ETAG)
+                .build();
+
+        // Act & Assert
+        StepVerifier.create(capacityHandler.listCapacities(request))
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.NOT_MODIFIED, response.statusCode());
+                    assertEquals(ETAG, response.headers().getETag());
+                })
+                .verifyComplete();
+
+        verifyNoInteractions(capacityHelper);
+    }
+
+    @Test
+    @DisplayName("Get Capacities By Ids: Should return 304 without querying when If-None-Match matches")
+    void getCapacitiesByIds_WhenETagMatches_ShouldReturnNotModified() {
+        // Arrange
+        when(catalogVersion.etag()).thenReturn(ETAG);
+        MockServerRequest request = MockServerRequest.builder()
+                .queryParam("ids", "1,2")
+                .header(HttpHeaders.IF_NONE_MATCH, ETAG)
+                .build();
+
+        // Act & Assert
+        StepVerifier.create(capacityHandler.getCapacitiesByIds(request))
+                .assertNext(response -> assertEquals(HttpStatus.NOT_MODIFIED, response.statusCode()))
+                .verifyComplete();
+
+        verifyNoInteractions(capacityHelper);
+    }
+
+    @Test
+    @DisplayName("Export Capacities: Should stream NDJSON by default and SSE when requested")
+    void exportCapacities_ShouldNegotiateStreamingMediaType() {
+        // Arrange
+        when(capacityHelper.exportCapacities()).thenReturn(Flux.just(new CapacityResponse()));
+        MockServerRequest ndjsonRequest = MockServerRequest.builder().build();
+        MockServerRequest sseRequest = MockServerRequest.builder()
+                .header("Accept", MediaType.TEXT_EVENT_STREAM_VALUE)
+                .build();
+
+        // Act & Assert
+        StepVerifier.create(capacityHandler.exportCapacities(ndjsonRequest))
+                .assertNext(response -> assertEquals(MediaType.APPLICATION_NDJSON, response.headers().getContentType()))
+                .verifyComplete();
+        StepVerifier.create(capacityHandler.exportCapacities(sseRequest))
+                .assertNext(response -> assertEquals(MediaType.TEXT_EVENT_STREAM, response.headers().getContentType()))
+                .verifyComplete();
+    }
+
     @Test
     @DisplayName("Get Capacities By Ids: Should return 200 OK with data")
     void getCapacitiesByIds_ShouldReturnOk() {
         // Arrange
+        when(catalogVersion.etag()).thenReturn(ETAG);
         String idsParam = "1, 2, 3";
         List<Long> expectedIds = Arrays.asList(1L, 2L, 3L);
         CapacityResponse responseDto = new CapacityResponse();
@@ -116,7 +364,7 @@ class CapacityHandlerTest {
                 .queryParam("ids", idsParam)
                 .build();
 
-        when(capacityHelper.getCapacitiesByIds(expectedIds))
+        when(capacityHelper.getCapacitiesByIds(expectedIds, null, Set.of()))
                 .thenReturn(Flux.just(responseDto));
 
         // Act
@@ -127,7 +375,36 @@ class CapacityHandlerTest {
                 .assertNext(response -> assertEquals(HttpStatus.OK, response.statusCode()))
                 .verifyComplete();
 
-        verify(capacityHelper).getCapacitiesByIds(expectedIds);
+        verify(capacityHelper).getCapacitiesByIds(expectedIds, null, Set.of());
+    }
+
+    @Test
+    @DisplayName("Get Capacities By Ids: Should pass the requested fields to the helper")
+    void getCapacitiesByIds_WithFields_ShouldPassFields() {
+        // Arrange
+        when(catalogVersion.etag()).thenReturn(ETAG);
+        MockServerRequest request = MockServerRequest.builder()
+                .queryParam("ids", "1")
+                .queryParam("fields", "id, name,technologyCount")
+                .build();
+
+        when(capacityHelper.getCapacitiesByIds(List.of(1L), null, Set.of("id", "name", "technologyCount")))
+                .thenReturn(Flux.just(new CapacityResponse()));
+
+        // Act & Assert
+        StepVerifier.create(capacityHandler.getCapacitiesByIds(request))
+                .assertNext(response -> assertEquals(HttpStatus.OK, response.statusCode()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Parse Fields: Should reject unknown fields")
+    void parseFields_WhenUnknownField_ShouldThrowBadRequest() {
+        // Act & Assert
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> CapacityHandler.parseFields("id,password"));
+
+        assertEquals(INVALID_FIELDS, exception.getMessage());
     }
 
     @Test
@@ -144,6 +421,43 @@ class CapacityHandlerTest {
         assertEquals("ids es requerido", exception.getMessage());
     }
 
+    @Test
+    @DisplayName("Get Capacities By Technology: Should return the page for the technology and cursor")
+    void getCapacitiesByTechnology_ShouldReturnOk() {
+        // Arrange
+        when(catalogVersion.etag()).thenReturn(ETAG);
+        MockServerRequest request = MockServerRequest.builder()
+                .queryParam("technologyId", "7")
+                .queryParam("size", "20")
+                .queryParam("cursor", "42")
+                .build();
+
+        when(capacityHelper.getCapacitiesByTechnology(7L, "42", 20, null, Set.of()))
+                .thenReturn(Mono.just(new PageResponse<>()));
+
+        // Act & Assert
+        StepVerifier.create(capacityHandler.getCapacitiesByTechnology(request))
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.OK, response.statusCode());
+                    assertEquals(ETAG, response.headers().getETag());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Get Capacities By Technology: Should throw exception when technologyId is missing")
+    void getCapacitiesByTechnology_WhenTechnologyIdMissing_ShouldThrowException() {
+        // Arrange
+        when(catalogVersion.etag()).thenReturn(ETAG);
+        MockServerRequest request = MockServerRequest.builder().build();
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> capacityHandler.getCapacitiesByTechnology(request));
+
+        assertEquals("technologyId es requerido", exception.getMessage());
+    }
+
     @Test
     @DisplayName("Delete Capacities: Should return 200 OK with true on success")
     void deleteCapacities_ShouldReturnOkWithTrue() {
@@ -170,28 +484,26 @@ class CapacityHandlerTest {
     }
 
     @Test
-    @DisplayName("Delete Capacities: Should return 200 OK with false when helper fails")
-    void deleteCapacities_OnError_ShouldReturnOkWithFalse() {
+    @DisplayName("Delete Capacities: Should respond with a server error when helper fails")
+    void deleteCapacities_OnError_ShouldReturnServerError() {
         // Arrange
-        String idsParam = "1";
         List<Long> expectedIds = List.of(1L);
 
-        MockServerRequest request = MockServerRequest.builder()
-                .queryParam("ids", idsParam)
-                .build();
-
-        // Simulamos un error en el helper
+        // Simulamos un error en el helper (p. ej. la transaccion de borrado falla)
         when(capacityHelper.deleteCapacities(expectedIds))
                 .thenReturn(Mono.error(new RuntimeException("Error interno")));
 
-        // Act
-        Mono<ServerResponse> result = capacityHandler.deleteCapacities(request);
+        WebTestClient client = WebTestClient
+                .bindToRouterFunction(new CapacityRouter().capacityRoutes(capacityHandler))
+                .build();
 
-        // Assert
-        // Gracias a .onErrorReturn(false), esperamos un 200 OK (con body false)
-        StepVerifier.create(result)
-                .assertNext(response -> assertEquals(HttpStatus.OK, response.statusCode()))
-                .verifyComplete();
+        // Act & Assert
+        client.delete()
+                .uri("/api/v1/capacity?ids=1")
+                .exchange()
+                .expectStatus().is5xxServerError();
+
+        verify(capacityHelper).deleteCapacities(expectedIds);
     }
 
     @Test
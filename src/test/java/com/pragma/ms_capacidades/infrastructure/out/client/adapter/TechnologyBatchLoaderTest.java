@@ -0,0 +1,168 @@
+package com.pragma.ms_capacidades.infrastructure.out.client.adapter;
+
+import com.pragma.ms_capacidades.infrastructure.input.rest.dto.TechnologyResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TechnologyBatchLoaderTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final List<List<Long>> remoteCalls = new CopyOnWriteArrayList<>();
+    private TechnologyBatchLoader batchLoader;
+
+    @AfterEach
+    void tearDown() {
+        batchLoader.dispose();
+    }
+
+    @Test
+    @DisplayName("Load: Should coalesce concurrent requests into one deduplicated remote call")
+    void load_WhenRequestsInSameWindow_ShouldCallRemoteOnce() {
+        // Arrange
+        batchLoader = new TechnologyBatchLoader(this::fakeRemote, Duration.ofMillis(50), 100, 4, 1000, TIMEOUT);
+
+        // Act
+        Flux<Long> result = Flux.merge(
+                        batchLoader.load(List.of(1L, 2L)),
+                        batchLoader.load(List.of(2L, 3L)))
+                .map(TechnologyResponse::getId);
+
+        // Assert
+        StepVerifier.create(result.collectList())
+                .assertNext(ids -> assertTrue(ids.containsAll(List.of(1L, 2L, 3L)) && ids.size() == 4))
+                .verifyComplete();
+
+        assertEquals(1, remoteCalls.size());
+        assertEquals(List.of(1L, 2L, 3L), remoteCalls.get(0));
+    }
+
+    @Test
+    @DisplayName("Load: Should split a window into remote calls bounded by distinct id count")
+    void load_WhenWindowExceedsIdLimit_ShouldSplitByIds() {
+        // Arrange
+        batchLoader = new TechnologyBatchLoader(this::fakeRemote, Duration.ofMillis(50), 3, 4, 1000, TIMEOUT);
+
+        // Act
+        Flux<TechnologyResponse> result = Flux.merge(
+                batchLoader.load(List.of(1L, 2L)),
+                batchLoader.load(List.of(3L, 4L)),
+                batchLoader.load(List.of(4L, 5L)));
+
+        // Assert
+        StepVerifier.create(result.count())
+                .expectNext(6L)
+                .verifyComplete();
+
+        assertEquals(2, remoteCalls.size());
+        assertTrue(remoteCalls.stream().allMatch(ids -> ids.size() <= 3));
+    }
+
+    @Test
+    @DisplayName("Load: Should keep remote calls in flight bounded by max concurrency")
+    void load_WhenManyOversizedRequests_ShouldBoundCallsInFlight() {
+        // Arrange
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        batchLoader = new TechnologyBatchLoader(ids -> Flux.defer(() -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    return fakeRemote(ids).delaySubscription(Duration.ofMillis(50))
+                            .doFinally(signal -> inFlight.decrementAndGet());
+                }), Duration.ofMillis(10), 2, 3, 1000, TIMEOUT);
+
+        // Act
+        Flux<TechnologyResponse> result = Flux.merge(
+                batchLoader.load(List.of(1L, 2L, 3L, 4L, 5L, 6L)),
+                batchLoader.load(List.of(7L, 8L, 9L, 10L, 11L, 12L)),
+                batchLoader.load(List.of(13L, 14L, 15L, 16L, 17L, 18L)),
+                batchLoader.load(List.of(19L, 20L, 21L, 22L, 23L, 24L)));
+
+        // Assert
+        StepVerifier.create(result.count())
+                .expectNext(24L)
+                .verifyComplete();
+
+        assertEquals(12, remoteCalls.size());
+        assertTrue(maxInFlight.get() <= 3);
+    }
+
+    @Test
+    @DisplayName("Load: Should fail only the waiters of a batch whose remote call hangs")
+    void load_WhenRemoteHangs_ShouldTimeOutBatch() {
+        // Arrange
+        batchLoader = new TechnologyBatchLoader(ids -> Flux.never(), Duration.ofMillis(10), 100, 4, 1000,
+                Duration.ofMillis(100));
+
+        // Act & Assert
+        StepVerifier.create(batchLoader.load(List.of(1L)))
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Load: Should keep serving after a batch fails unexpectedly")
+    void load_WhenFetcherThrows_ShouldServeLaterRequests() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+        batchLoader = new TechnologyBatchLoader(ids -> {
+            if (calls.getAndIncrement() == 0) {
+                throw new IllegalStateException("Unexpected");
+            }
+            return fakeRemote(ids);
+        }, Duration.ofMillis(10), 100, 4, 1000, TIMEOUT);
+
+        // Act & Assert
+        StepVerifier.create(batchLoader.load(List.of(1L)))
+                .expectErrorMessage("Unexpected")
+                .verify(Duration.ofSeconds(5));
+        StepVerifier.create(batchLoader.load(List.of(2L)).map(TechnologyResponse::getId))
+                .expectNext(2L)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Load: Should reject requests when the pending queue is full")
+    void load_WhenPendingQueueFull_ShouldReject() {
+        // Arrange
+        batchLoader = new TechnologyBatchLoader(ids -> Flux.never(), Duration.ofMillis(10), 1, 1, 1, TIMEOUT);
+        List<Flux<TechnologyResponse>> loads = IntStream.range(0, 20)
+                .mapToObj(i -> batchLoader.load(List.of((long) i)))
+                .toList();
+
+        // Act & Assert
+        StepVerifier.create(Flux.merge(loads).then())
+                .expectError(IllegalStateException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Load: Should propagate remote errors to every waiting subscriber")
+    void load_WhenRemoteFails_ShouldPropagateError() {
+        // Arrange
+        batchLoader = new TechnologyBatchLoader(ids -> Flux.error(new RuntimeException("Remote down")),
+                Duration.ofMillis(10), 100, 4, 1000, TIMEOUT);
+
+        // Act & Assert
+        StepVerifier.create(batchLoader.load(List.of(1L)))
+                .expectErrorMessage("Remote down")
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private Flux<TechnologyResponse> fakeRemote(List<Long> ids) {
+        remoteCalls.add(ids);
+        return Flux.fromIterable(ids).map(id -> new TechnologyResponse(id, "Tech " + id, "Desc"));
+    }
+}
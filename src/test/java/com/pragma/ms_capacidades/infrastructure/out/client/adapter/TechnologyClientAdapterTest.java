@@ -0,0 +1,137 @@
+package com.pragma.ms_capacidades.infrastructure.out.client.adapter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pragma.ms_capacidades.infrastructure.input.rest.dto.TechnologyResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TechnologyClientAdapterTest {
+
+    private final List<List<Long>> loadedIds = new CopyOnWriteArrayList<>();
+    private Cache<Long, TechnologyResponse> technologyCache;
+    private TechnologyBatchLoader batchLoader;
+
+    @BeforeEach
+    void setUp() {
+        technologyCache = Caffeine.newBuilder().maximumSize(100).build();
+        batchLoader = new TechnologyBatchLoader(this::fakeRemote, Duration.ofMillis(1), 100, 4, 100,
+                Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchLoader.dispose();
+    }
+
+    @Test
+    @DisplayName("GetTechnologiesByIds: Should send only the uncached ids to the batch loader")
+    void getTechnologiesByIds_ShouldLoadOnlyUncachedIds() {
+        // Arrange
+        technologyCache.put(1L, technology(1L));
+        TechnologyClientAdapter adapter = adapterReturning("true");
+
+        // Act
+        Flux<Long> result = adapter.getTechnologiesByIds(List.of(1L, 2L, 3L, 2L)).map(TechnologyResponse::getId);
+
+        // Assert
+        StepVerifier.create(result.collectList())
+                .assertNext(ids -> assertTrue(ids.size() == 3 && ids.containsAll(List.of(1L, 2L, 3L))))
+                .verifyComplete();
+
+        assertEquals(List.of(List.of(2L, 3L)), loadedIds);
+        assertNotNull(technologyCache.getIfPresent(2L));
+        assertNotNull(technologyCache.getIfPresent(3L));
+    }
+
+    @Test
+    @DisplayName("GetTechnologiesByIds: Should serve repeated ids from the cache")
+    void getTechnologiesByIds_WhenRepeated_ShouldServeFromCache() {
+        // Arrange
+        TechnologyClientAdapter adapter = adapterReturning("true");
+
+        // Act
+        StepVerifier.create(adapter.getTechnologiesByIds(List.of(1L, 2L)))
+                .expectNextCount(2)
+                .verifyComplete();
+        StepVerifier.create(adapter.getTechnologiesByIds(List.of(2L, 1L)))
+                .expectNextCount(2)
+                .verifyComplete();
+
+        // Assert
+        assertEquals(List.of(List.of(1L, 2L)), loadedIds);
+    }
+
+    @Test
+    @DisplayName("DeleteTechnolgies: Should evict the deleted ids when the service confirms the deletion")
+    void deleteTechnolgies_WhenDeleted_ShouldEvictIds() {
+        // Arrange
+        technologyCache.put(1L, technology(1L));
+        technologyCache.put(2L, technology(2L));
+        technologyCache.put(3L, technology(3L));
+        TechnologyClientAdapter adapter = adapterReturning("true");
+
+        // Act & Assert
+        StepVerifier.create(adapter.deleteTechnolgies(List.of(1L, 2L)))
+                .expectNext(true)
+                .verifyComplete();
+
+        assertNull(technologyCache.getIfPresent(1L));
+        assertNull(technologyCache.getIfPresent(2L));
+        assertNotNull(technologyCache.getIfPresent(3L));
+    }
+
+    @Test
+    @DisplayName("DeleteTechnolgies: Should keep the cache when the service does not confirm the deletion")
+    void deleteTechnolgies_WhenNotDeleted_ShouldKeepCache() {
+        // Arrange
+        technologyCache.put(1L, technology(1L));
+        TechnologyClientAdapter adapter = adapterReturning("false");
+
+        // Act & Assert
+        StepVerifier.create(adapter.deleteTechnolgies(List.of(1L)))
+                .expectNext(false)
+                .verifyComplete();
+
+        assertNotNull(technologyCache.getIfPresent(1L));
+    }
+
+    // El WebClient solo atiende las llamadas directas (borrado); las consultas por ids pasan por el cargador
+    private TechnologyClientAdapter adapterReturning(String body) {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(body)
+                        .build()))
+                .build();
+        return new TechnologyClientAdapter(webClient, technologyCache, batchLoader);
+    }
+
+    private Flux<TechnologyResponse> fakeRemote(List<Long> ids) {
+        loadedIds.add(ids);
+        return Flux.fromIterable(ids).map(TechnologyClientAdapterTest::technology);
+    }
+
+    private static TechnologyResponse technology(Long id) {
+        return new TechnologyResponse(id, "Tech " + id, "Desc");
+    }
+}
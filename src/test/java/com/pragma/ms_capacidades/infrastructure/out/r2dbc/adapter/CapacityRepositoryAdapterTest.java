@@ -1,13 +1,19 @@
 package com.pragma.ms_capacidades.infrastructure.out.r2dbc.adapter;
 
+import com.pragma.ms_capacidades.domain.exception.CapacityAlreadyExistsException;
 import com.pragma.ms_capacidades.domain.model.Capacity;
+import com.pragma.ms_capacidades.domain.model.CountStrategy;
+import com.pragma.ms_capacidades.domain.model.PageCursor;
+import com.pragma.ms_capacidades.infrastructure.cache.CatalogVersion;
 import com.pragma.ms_capacidades.infrastructure.exception.InvalidSortFieldException;
 import com.pragma.ms_capacidades.infrastructure.out.r2dbc.entity.CapacityEntity;
 import com.pragma.ms_capacidades.infrastructure.out.r2dbc.entity.CapacityTechnologyEntity;
 import com.pragma.ms_capacidades.infrastructure.out.r2dbc.mapper.ICapacityEntityMapper;
-import com.pragma.ms_capacidades.infrastructure.out.r2dbc.projections.CapacityWithTechCountProjection;
+import com.pragma.ms_capacidades.infrastructure.out.r2dbc.projections.CapacityWithTechnologyIdsProjection;
 import com.pragma.ms_capacidades.infrastructure.out.r2dbc.repository.ICapacityR2dbcRepository;
 import com.pragma.ms_capacidades.infrastructure.out.r2dbc.repository.ICapacityTechnologyR2dbcRepository;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,16 +21,32 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.FetchSpec;
 import org.springframework.r2dbc.core.RowsFetchSpec;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.AbstractReactiveTransactionManager;
+import org.springframework.transaction.reactive.GenericReactiveTransaction;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -42,12 +64,18 @@ class CapacityRepositoryAdapterTest {
     private ICapacityEntityMapper capacityEntityMapper;
     @Mock
     private DatabaseClient databaseClient;
+    @Mock
+    private CatalogVersion catalogVersion;
 
     // Mocks necesarios para la cadena fluida de DatabaseClient
     @Mock
     private DatabaseClient.GenericExecuteSpec genericExecuteSpec;
     @Mock
-    private RowsFetchSpec<CapacityWithTechCountProjection> rowsFetchSpec;
+    private RowsFetchSpec<CapacityWithTechnologyIdsProjection> rowsFetchSpec;
+    @Mock
+    private RowsFetchSpec<Long> countFetchSpec;
+    @Mock
+    private FetchSpec<Map<String, Object>> fetchSpec;
 
     @InjectMocks
     private CapacityRepositoryAdapter capacityRepositoryAdapter;
@@ -64,6 +92,7 @@ class CapacityRepositoryAdapterTest {
         // Entidades simuladas
         CapacityEntity capacityEntity = new CapacityEntity(); // Asumiendo setters o constructor
         capacityEntity.setName("Java Cap");
+        capacityEntity.setTechnologyIds(techIds);
 
         CapacityEntity savedEntity = new CapacityEntity();
         savedEntity.setId(1L);
@@ -77,9 +106,11 @@ class CapacityRepositoryAdapterTest {
         // 2. Guardado de la entidad padre
         when(capacityR2dbcRepository.save(capacityEntity)).thenReturn(Mono.just(savedEntity));
 
-        // 3. Guardado de las relaciones (se llamará 2 veces porque hay 2 techIds)
-        when(capacityTechnologyRepository.save(any(CapacityTechnologyEntity.class)))
-                .thenReturn(Mono.just(new CapacityTechnologyEntity())); // Retorno dummy
+        // 3. Guardado de las relaciones en un solo INSERT multi-fila
+        when(databaseClient.sql(anyString())).thenReturn(genericExecuteSpec);
+        when(genericExecuteSpec.bind(anyString(), any())).thenReturn(genericExecuteSpec);
+        when(genericExecuteSpec.fetch()).thenReturn(fetchSpec);
+        when(fetchSpec.rowsUpdated()).thenReturn(Mono.just(2L));
 
         // 4. Mapeo final
         when(capacityEntityMapper.toModel(savedEntity)).thenReturn(savedModel);
@@ -93,8 +124,102 @@ class CapacityRepositoryAdapterTest {
                 .verifyComplete();
 
         verify(capacityR2dbcRepository).save(capacityEntity);
-        // Verificamos que se guardaron las relaciones en la tabla intermedia
-        verify(capacityTechnologyRepository, times(2)).save(any(CapacityTechnologyEntity.class));
+        assertTrue(capacityEntity.getTechnologyCount() == 2);
+        // Verificamos que se guardaron las relaciones en la tabla intermedia con una sola sentencia
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(databaseClient, times(1)).sql(sqlCaptor.capture());
+        assertTrue(sqlCaptor.getValue().contains(
+                "VALUES (:capacityId0, :technologyId0), (:capacityId1, :technologyId1)"));
+        verify(genericExecuteSpec).bind("technologyId1", 20L);
+        verify(capacityTechnologyRepository, never()).save(any(CapacityTechnologyEntity.class));
+        verify(catalogVersion).bump(); // Invalida los ETag de listados
+    }
+
+    @Test
+    @DisplayName("Save: Should change the catalog version only after the transaction commits")
+    void save_WhenInTransaction_ShouldBumpVersionAfterCommit() {
+        // Arrange
+        Capacity capacityModel = new Capacity(null, "Java Cap", "Desc", List.of(), null, null);
+        CapacityEntity capacityEntity = new CapacityEntity();
+        capacityEntity.setTechnologyIds(List.of());
+        Capacity savedModel = new Capacity(1L, "Java Cap", "Desc", List.of(), null, null);
+        List<String> events = new ArrayList<>();
+
+        when(capacityEntityMapper.toEntity(capacityModel)).thenReturn(capacityEntity);
+        when(capacityR2dbcRepository.save(capacityEntity)).thenReturn(Mono.just(capacityEntity));
+        when(capacityEntityMapper.toModel(capacityEntity)).thenReturn(savedModel);
+        doAnswer(invocation -> events.add("bump")).when(catalogVersion).bump();
+        TransactionalOperator transaction =
+                TransactionalOperator.create(new RecordingTransactionManager(() -> events.add("commit")));
+
+        // Act
+        StepVerifier.create(transaction.transactional(capacityRepositoryAdapter.save(capacityModel)))
+                .expectNext(savedModel)
+                .verifyComplete();
+
+        // Assert
+        assertEquals(List.of("commit", "bump"), events);
+    }
+
+    @Test
+    @DisplayName("Save: Should translate a duplicate key violation into CapacityAlreadyExistsException")
+    void save_WhenNameViolatesUniqueKey_ShouldThrowCapacityAlreadyExists() {
+        // Arrange
+        List<Long> techIds = Arrays.asList(10L, 20L);
+        Capacity capacityModel = new Capacity(null, "Java Cap", "Desc", techIds, null, null);
+        CapacityEntity capacityEntity = new CapacityEntity(null, "Java Cap", "Desc", null, techIds);
+
+        when(capacityEntityMapper.toEntity(capacityModel)).thenReturn(capacityEntity);
+        when(capacityR2dbcRepository.save(capacityEntity))
+                .thenReturn(Mono.error(new DuplicateKeyException("Duplicate entry 'Java Cap'")));
+
+        // Act
+        Mono<Capacity> result = capacityRepositoryAdapter.save(capacityModel);
+
+        // Assert
+        StepVerifier.create(result)
+                .expectError(CapacityAlreadyExistsException.class)
+                .verify();
+
+        verifyNoInteractions(databaseClient); // No se insertan relaciones
+    }
+
+    @Test
+    @DisplayName("SaveAll: Should insert capacities and all their relations in one statement")
+    void saveAll_ShouldPersistChunkWithSingleRelationInsert() {
+        // Arrange
+        Capacity first = new Capacity(null, "Backend", "Desc", List.of(1L, 2L), null, null);
+        Capacity second = new Capacity(null, "Frontend", "Desc", List.of(3L), null, null);
+        CapacityEntity firstEntity = new CapacityEntity(null, "Backend", "Desc", null, List.of(1L, 2L));
+        CapacityEntity secondEntity = new CapacityEntity(null, "Frontend", "Desc", null, List.of(3L));
+        CapacityEntity firstSaved = new CapacityEntity(1L, "Backend", "Desc", 2, List.of(1L, 2L));
+        CapacityEntity secondSaved = new CapacityEntity(2L, "Frontend", "Desc", 1, List.of(3L));
+        Capacity firstModel = new Capacity(1L, "Backend", "Desc", List.of(1L, 2L), null, 2);
+        Capacity secondModel = new Capacity(2L, "Frontend", "Desc", List.of(3L), null, 1);
+
+        when(capacityEntityMapper.toEntity(first)).thenReturn(firstEntity);
+        when(capacityEntityMapper.toEntity(second)).thenReturn(secondEntity);
+        when(capacityR2dbcRepository.save(firstEntity)).thenReturn(Mono.just(firstSaved));
+        when(capacityR2dbcRepository.save(secondEntity)).thenReturn(Mono.just(secondSaved));
+        when(databaseClient.sql(anyString())).thenReturn(genericExecuteSpec);
+        when(genericExecuteSpec.bind(anyString(), any())).thenReturn(genericExecuteSpec);
+        when(genericExecuteSpec.fetch()).thenReturn(fetchSpec);
+        when(fetchSpec.rowsUpdated()).thenReturn(Mono.just(3L));
+        when(capacityEntityMapper.toModel(firstSaved)).thenReturn(firstModel);
+        when(capacityEntityMapper.toModel(secondSaved)).thenReturn(secondModel);
+
+        // Act
+        Flux<Capacity> result = capacityRepositoryAdapter.saveAll(List.of(first, second));
+
+        // Assert
+        StepVerifier.create(result)
+                .expectNext(firstModel, secondModel)
+                .verifyComplete();
+
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(databaseClient, times(1)).sql(sqlCaptor.capture());
+        assertTrue(sqlCaptor.getValue().contains(":technologyId2)"));
+        verify(genericExecuteSpec).bind("capacityId2", 2L);
     }
 
     // --- TEST: findAllPaged ---
@@ -108,16 +233,18 @@ class CapacityRepositoryAdapterTest {
         String sortBy = "name";
         String direction = "asc";
 
-        CapacityWithTechCountProjection projection = new CapacityWithTechCountProjection(1L, "Name", "Desc", 5L);
+        CapacityWithTechnologyIdsProjection projection =
+                new CapacityWithTechnologyIdsProjection(1L, "Name", "Desc", 5L, List.of(1L, 2L, 3L, 4L, 5L));
         Capacity capacityModel = new Capacity(1L, "Name", "Desc", null, null, 5);
 
         // Mocking DatabaseClient fluent API
         when(databaseClient.sql(anyString())).thenReturn(genericExecuteSpec);
+        when(genericExecuteSpec.bind(anyString(), any())).thenReturn(genericExecuteSpec);
         // Usamos any(BiFunction.class) para evitar ambigüedad
         when(genericExecuteSpec.map(any(BiFunction.class))).thenReturn(rowsFetchSpec);
         when(rowsFetchSpec.all()).thenReturn(Flux.just(projection));
 
-        when(capacityEntityMapper.toModelProjection(projection)).thenReturn(capacityModel);
+        when(capacityEntityMapper.toModelWithTechnologyIds(projection)).thenReturn(capacityModel);
 
         // Act
         Flux<Capacity> result = capacityRepositoryAdapter.findAllPaged(page, size, sortBy, direction);
@@ -133,7 +260,92 @@ class CapacityRepositoryAdapterTest {
         String executedSql = sqlCaptor.getValue();
 
         assertTrue(executedSql.contains("ORDER BY c.name ASC"));
-        assertTrue(executedSql.contains("LIMIT 10 OFFSET 0"));
+        assertTrue(executedSql.contains("LIMIT :limit OFFSET :offset"));
+        assertTrue(!executedSql.contains("GROUP BY"));
+        verify(genericExecuteSpec).bind("limit", 10);
+        verify(genericExecuteSpec).bind("offset", 0L);
+    }
+
+    @Test
+    @DisplayName("FindAllPaged: Should reuse the same statement text for every page and size")
+    void findAllPaged_WhenDifferentPages_ShouldReuseStatement() {
+        // Arrange
+        when(databaseClient.sql(anyString())).thenReturn(genericExecuteSpec);
+        when(genericExecuteSpec.bind(anyString(), any())).thenReturn(genericExecuteSpec);
+        when(genericExecuteSpec.map(any(BiFunction.class))).thenReturn(rowsFetchSpec);
+        when(rowsFetchSpec.all()).thenReturn(Flux.empty());
+
+        // Act
+        StepVerifier.create(capacityRepositoryAdapter.findAllPaged(0, 10, "technologyCount", "desc")).verifyComplete();
+        StepVerifier.create(capacityRepositoryAdapter.findAllPaged(7, 25, "technologyCount", "desc")).verifyComplete();
+
+        // Assert
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(databaseClient, times(2)).sql(sqlCaptor.capture());
+        assertSame(sqlCaptor.getAllValues().get(0), sqlCaptor.getAllValues().get(1));
+        verify(genericExecuteSpec).bind("offset", 175L);
+    }
+
+    @Test
+    @DisplayName("FindPageAfter: Should seek by name and id without OFFSET")
+    void findPageAfter_WhenSortedByName_ShouldSeekWithWhereClause() {
+        // Arrange
+        PageCursor cursor = new PageCursor("name", "asc", 7L, "Backend");
+        CapacityWithTechnologyIdsProjection projection =
+                new CapacityWithTechnologyIdsProjection(8L, "Cloud", "Desc", 3L, List.of(1L, 2L, 3L));
+        Capacity capacityModel = new Capacity(8L, "Cloud", "Desc", null, null, 3);
+
+        when(databaseClient.sql(anyString())).thenReturn(genericExecuteSpec);
+        when(genericExecuteSpec.bind(anyString(), any())).thenReturn(genericExecuteSpec);
+        when(genericExecuteSpec.map(any(BiFunction.class))).thenReturn(rowsFetchSpec);
+        when(rowsFetchSpec.all()).thenReturn(Flux.just(projection));
+        when(capacityEntityMapper.toModelWithTechnologyIds(projection)).thenReturn(capacityModel);
+
+        // Act
+        Flux<Capacity> result = capacityRepositoryAdapter.findPageAfter(cursor, 10);
+
+        // Assert
+        StepVerifier.create(result)
+                .expectNext(capacityModel)
+                .verifyComplete();
+
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(databaseClient).sql(sqlCaptor.capture());
+        String executedSql = sqlCaptor.getValue();
+
+        assertTrue(executedSql.contains("WHERE (c.name > :lastValue OR (c.name = :lastValue AND c.id > :lastId))"));
+        assertTrue(executedSql.contains("ORDER BY c.name ASC, c.id ASC"));
+        assertTrue(executedSql.contains("LIMIT :limit"));
+        assertTrue(!executedSql.contains("OFFSET"));
+        verify(genericExecuteSpec).bind("limit", 10);
+        verify(genericExecuteSpec).bind("lastValue", "Backend");
+        verify(genericExecuteSpec).bind("lastId", 7L);
+    }
+
+    @Test
+    @DisplayName("FindPageAfter: Should seek on the stored count when sorted by technologyCount")
+    void findPageAfter_WhenSortedByTechnologyCount_ShouldSeekOnCountColumn() {
+        // Arrange
+        PageCursor cursor = new PageCursor("technologyCount", "desc", 7L, "5");
+
+        when(databaseClient.sql(anyString())).thenReturn(genericExecuteSpec);
+        when(genericExecuteSpec.bind(anyString(), any())).thenReturn(genericExecuteSpec);
+        when(genericExecuteSpec.map(any(BiFunction.class))).thenReturn(rowsFetchSpec);
+        when(rowsFetchSpec.all()).thenReturn(Flux.empty());
+
+        // Act
+        Flux<Capacity> result = capacityRepositoryAdapter.findPageAfter(cursor, 10);
+
+        // Assert
+        StepVerifier.create(result).verifyComplete();
+
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(databaseClient).sql(sqlCaptor.capture());
+
+        assertTrue(sqlCaptor.getValue().contains("WHERE (c.technology_count < :lastValue"));
+        assertTrue(sqlCaptor.getValue().contains("ORDER BY c.technology_count DESC, c.id DESC"));
+        assertTrue(!sqlCaptor.getValue().contains("GROUP BY"));
+        verify(genericExecuteSpec).bind("lastValue", 5L);
     }
 
     @Test
@@ -145,6 +357,87 @@ class CapacityRepositoryAdapterTest {
         });
     }
 
+    // --- TEST: streamAllWithTechnologyIds ---
+
+    @Test
+    @DisplayName("StreamAll: Should page through the catalog by id with a parameterized statement")
+    void streamAllWithTechnologyIds_ShouldPageByIdKeyset() {
+        // Arrange
+        ReflectionTestUtils.setField(capacityRepositoryAdapter, "exportPageSize", 2);
+        CapacityWithTechnologyIdsProjection first =
+                new CapacityWithTechnologyIdsProjection(1L, "Backend", "Desc", 2L, List.of(10L, 20L));
+        CapacityWithTechnologyIdsProjection second =
+                new CapacityWithTechnologyIdsProjection(2L, "Frontend", "Desc", 0L, List.of());
+        CapacityWithTechnologyIdsProjection third =
+                new CapacityWithTechnologyIdsProjection(5L, "Data", "Desc", 1L, List.of(30L));
+
+        when(databaseClient.sql(anyString())).thenReturn(genericExecuteSpec);
+        when(genericExecuteSpec.bind(anyString(), any())).thenReturn(genericExecuteSpec);
+        when(genericExecuteSpec.map(any(BiFunction.class))).thenReturn(rowsFetchSpec);
+        when(rowsFetchSpec.all()).thenReturn(Flux.just(first, second), Flux.just(third));
+        when(capacityEntityMapper.toModelWithTechnologyIds(any())).thenAnswer(invocation -> {
+            CapacityWithTechnologyIdsProjection projection = invocation.getArgument(0);
+            return new Capacity(projection.getId(), projection.getName(), projection.getDescription(),
+                    projection.getTechnologyIds(), null, projection.getTechnologyCount().intValue());
+        });
+
+        // Act
+        Flux<Long> result = capacityRepositoryAdapter.streamAllWithTechnologyIds().map(Capacity::getId);
+
+        // Assert
+        StepVerifier.create(result)
+                .expectNext(1L, 2L, 5L)
+                .verifyComplete();
+
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(databaseClient, times(2)).sql(sqlCaptor.capture());
+        assertTrue(sqlCaptor.getValue().contains("WHERE c.id > :afterId"));
+        verify(genericExecuteSpec).bind("afterId", 0L);
+        verify(genericExecuteSpec).bind("afterId", 2L);
+        verify(genericExecuteSpec, times(2)).bind("limit", 2);
+    }
+
+    @Test
+    @DisplayName("StreamAll: Should not query the next page until the current one has been consumed")
+    void streamAllWithTechnologyIds_ShouldFollowClientDemand() {
+        // Arrange
+        ReflectionTestUtils.setField(capacityRepositoryAdapter, "exportPageSize", 2);
+        CapacityWithTechnologyIdsProjection first =
+                new CapacityWithTechnologyIdsProjection(1L, "Backend", "Desc", 2L, List.of(10L, 20L));
+        CapacityWithTechnologyIdsProjection second =
+                new CapacityWithTechnologyIdsProjection(2L, "Frontend", "Desc", 0L, List.of());
+        CapacityWithTechnologyIdsProjection third =
+                new CapacityWithTechnologyIdsProjection(5L, "Data", "Desc", 1L, List.of(30L));
+
+        when(databaseClient.sql(anyString())).thenReturn(genericExecuteSpec);
+        when(genericExecuteSpec.bind(anyString(), any())).thenReturn(genericExecuteSpec);
+        when(genericExecuteSpec.map(any(BiFunction.class))).thenReturn(rowsFetchSpec);
+        when(rowsFetchSpec.all()).thenReturn(Flux.just(first, second), Flux.just(third));
+        when(capacityEntityMapper.toModelWithTechnologyIds(any())).thenAnswer(invocation -> {
+            CapacityWithTechnologyIdsProjection projection = invocation.getArgument(0);
+            return new Capacity(projection.getId(), projection.getName(), projection.getDescription(),
+                    projection.getTechnologyIds(), null, projection.getTechnologyCount().intValue());
+        });
+
+        // Act
+        Flux<Long> result = capacityRepositoryAdapter.streamAllWithTechnologyIds().map(Capacity::getId);
+
+        // Assert
+        StepVerifier.create(result, 0)
+                .then(() -> verify(databaseClient, never()).sql(anyString()))
+                .thenRequest(1)
+                .expectNext(1L)
+                .then(() -> verify(databaseClient, times(1)).sql(anyString()))
+                .thenRequest(1)
+                .expectNext(2L)
+                .then(() -> verify(genericExecuteSpec).bind("afterId", 2L))
+                .thenRequest(1)
+                .expectNext(5L)
+                .verifyComplete();
+
+        verify(databaseClient, times(2)).sql(anyString());
+    }
+
     // --- TEST: existsByName ---
 
     @Test
@@ -180,47 +473,187 @@ class CapacityRepositoryAdapterTest {
                 .verifyComplete();
     }
 
-    // --- TEST: findTechnologyIdsByCapacityId ---
+    @Test
+    @DisplayName("Count: Should reuse cached total until a write invalidates it")
+    void count_WhenCachedStrategy_ShouldReuseUntilInvalidated() {
+        // Arrange
+        ReflectionTestUtils.setField(capacityRepositoryAdapter, "countStrategy", CountStrategy.CACHED);
+        ReflectionTestUtils.setField(capacityRepositoryAdapter, "countCacheTtl", Duration.ofMinutes(1));
+        when(capacityR2dbcRepository.countAll()).thenReturn(Mono.just(10L), Mono.just(9L));
+        when(capacityTechnologyRepository.findTechnologiesNotReferencedInOtherCapacities(List.of(1L)))
+                .thenReturn(Flux.empty());
+        when(capacityTechnologyRepository.deleteAllByCapacityIdIn(List.of(1L))).thenReturn(Mono.empty());
+        when(capacityR2dbcRepository.deleteAllById(List.of(1L))).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(capacityRepositoryAdapter.count()).expectNext(10L).verifyComplete();
+        StepVerifier.create(capacityRepositoryAdapter.count()).expectNext(10L).verifyComplete();
+        StepVerifier.create(capacityRepositoryAdapter.deleteCapacities(List.of(1L))).expectNext(true).verifyComplete();
+        StepVerifier.create(capacityRepositoryAdapter.count()).expectNext(9L).verifyComplete();
+
+        verify(capacityR2dbcRepository, times(2)).countAll();
+    }
 
     @Test
-    @DisplayName("FindTechnologyIds: Should delegate to tech repository")
-    void findTechnologyIdsByCapacityId_ShouldReturnFlux() {
+    @DisplayName("Count: Should keep the cached total until the deleting transaction commits")
+    void count_WhenCachedStrategy_ShouldInvalidateAfterCommit() {
         // Arrange
-        Long capId = 1L;
-        when(capacityTechnologyRepository.findTechnologyIdsByCapacityId(capId))
-                .thenReturn(Flux.just(10L, 20L));
+        ReflectionTestUtils.setField(capacityRepositoryAdapter, "countStrategy", CountStrategy.CACHED);
+        ReflectionTestUtils.setField(capacityRepositoryAdapter, "countCacheTtl", Duration.ofMinutes(1));
+        when(capacityR2dbcRepository.countAll()).thenReturn(Mono.just(10L));
+        when(capacityTechnologyRepository.findTechnologiesNotReferencedInOtherCapacities(List.of(1L)))
+                .thenReturn(Flux.empty());
+        when(capacityTechnologyRepository.deleteAllByCapacityIdIn(List.of(1L))).thenReturn(Mono.empty());
+        when(capacityR2dbcRepository.deleteAllById(List.of(1L))).thenReturn(Mono.empty());
+        AtomicReference<?> cachedCount =
+                (AtomicReference<?>) ReflectionTestUtils.getField(capacityRepositoryAdapter, "cachedCount");
+        List<String> events = new ArrayList<>();
+        TransactionalOperator transaction = TransactionalOperator.create(new RecordingTransactionManager(
+                () -> events.add(cachedCount.get() == null ? "commit:empty" : "commit:cached")));
+
+        StepVerifier.create(capacityRepositoryAdapter.count()).expectNext(10L).verifyComplete();
 
         // Act
-        Flux<Long> result = capacityRepositoryAdapter.findTechnologyIdsByCapacityId(capId);
+        StepVerifier.create(transaction.transactional(capacityRepositoryAdapter.deleteCapacities(List.of(1L))))
+                .expectNext(true)
+                .verifyComplete();
+
+        // Assert
+        assertEquals(List.of("commit:cached"), events); // Aun cacheado al confirmar
+        assertNull(cachedCount.get());
+    }
+
+    @Test
+    @DisplayName("Count: Should not cache a total whose query started before an invalidation")
+    void count_WhenInvalidatedWhileCounting_ShouldDiscardStaleTotal() {
+        // Arrange
+        ReflectionTestUtils.setField(capacityRepositoryAdapter, "countStrategy", CountStrategy.CACHED);
+        ReflectionTestUtils.setField(capacityRepositoryAdapter, "countCacheTtl", Duration.ofMinutes(1));
+        Sinks.One<Long> slowCount = Sinks.one();
+        when(capacityR2dbcRepository.countAll()).thenReturn(slowCount.asMono(), Mono.just(9L));
+        when(capacityTechnologyRepository.findTechnologiesNotReferencedInOtherCapacities(List.of(1L)))
+                .thenReturn(Flux.empty());
+        when(capacityTechnologyRepository.deleteAllByCapacityIdIn(List.of(1L))).thenReturn(Mono.empty());
+        when(capacityR2dbcRepository.deleteAllById(List.of(1L))).thenReturn(Mono.empty());
+
+        // Act: el conteo lento termina despues de que el borrado invalido la cache
+        AtomicReference<Long> staleTotal = new AtomicReference<>();
+        capacityRepositoryAdapter.count().subscribe(staleTotal::set);
+        StepVerifier.create(capacityRepositoryAdapter.deleteCapacities(List.of(1L))).expectNext(true).verifyComplete();
+        slowCount.tryEmitValue(10L);
+
+        // Assert
+        assertEquals(10L, staleTotal.get());
+        StepVerifier.create(capacityRepositoryAdapter.count()).expectNext(9L).verifyComplete();
+        verify(capacityR2dbcRepository, times(2)).countAll();
+    }
+
+    @Test
+    @DisplayName("Count: Should read table statistics when estimated strategy is configured")
+    void count_WhenEstimatedStrategy_ShouldUseTableStatistics() {
+        // Arrange
+        ReflectionTestUtils.setField(capacityRepositoryAdapter, "countStrategy", CountStrategy.ESTIMATED);
+        when(databaseClient.sql(anyString())).thenReturn(genericExecuteSpec);
+        when(genericExecuteSpec.map(any(BiFunction.class))).thenReturn(countFetchSpec);
+        when(countFetchSpec.one()).thenReturn(Mono.just(1000L));
+
+        // Act
+        Mono<Long> result = capacityRepositoryAdapter.count();
 
         // Assert
         StepVerifier.create(result)
-                .expectNext(10L)
-                .expectNext(20L)
+                .expectNext(1000L)
                 .verifyComplete();
+
+        verify(capacityR2dbcRepository, never()).countAll();
     }
 
-    // --- TEST: findCapacitiesByIds ---
+    // --- TEST: findCapacitiesWithTechnologyIds ---
 
     @Test
-    @DisplayName("FindCapacitiesByIds: Should find entities and map to models")
-    void findCapacitiesByIds_ShouldReturnModels() {
+    @DisplayName("FindWithTechnologyIds: Should fetch capacities and their technology ids in one query")
+    void findCapacitiesWithTechnologyIds_ShouldAggregateIdsInSingleQuery() {
         // Arrange
-        List<Long> ids = Arrays.asList(1L);
-        CapacityEntity entity = new CapacityEntity();
-        entity.setId(1L);
-        Capacity model = new Capacity(1L, "Name", "Desc", null, null, null);
+        List<Long> ids = List.of(1L, 2L);
+        Row row = mock(Row.class);
+        when(row.get("id", Long.class)).thenReturn(1L);
+        when(row.get("name", String.class)).thenReturn("Backend");
+        when(row.get("description", String.class)).thenReturn("Desc");
+        when(row.get("technology_count", Integer.class)).thenReturn(2);
+        when(row.get("technology_ids", String.class)).thenReturn("10,20");
+
+        when(databaseClient.sql(anyString())).thenReturn(genericExecuteSpec);
+        when(genericExecuteSpec.bind(anyString(), any())).thenReturn(genericExecuteSpec);
+        when(genericExecuteSpec.map(any(BiFunction.class))).thenReturn(rowsFetchSpec);
+        when(rowsFetchSpec.all()).thenReturn(Flux.empty());
 
-        when(capacityR2dbcRepository.findByIdIn(ids)).thenReturn(Flux.just(entity));
-        when(capacityEntityMapper.toModel(entity)).thenReturn(model);
+        // Act
+        StepVerifier.create(capacityRepositoryAdapter.findCapacitiesWithTechnologyIds(ids)).verifyComplete();
+
+        // Assert
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(databaseClient).sql(sqlCaptor.capture());
+        assertTrue(sqlCaptor.getValue().contains("GROUP_CONCAT(ct.technology_id"));
+        assertTrue(sqlCaptor.getValue().contains("WHERE c.id IN (:ids)"));
+        verify(genericExecuteSpec).bind("ids", ids);
+
+        ArgumentCaptor<BiFunction<Row, RowMetadata, CapacityWithTechnologyIdsProjection>> mapperCaptor =
+                ArgumentCaptor.forClass(BiFunction.class);
+        verify(genericExecuteSpec).map(mapperCaptor.capture());
+        CapacityWithTechnologyIdsProjection projection = mapperCaptor.getValue().apply(row, mock(RowMetadata.class));
+        assertEquals(List.of(10L, 20L), projection.getTechnologyIds());
+        assertEquals(2L, projection.getTechnologyCount());
+        verifyNoInteractions(capacityTechnologyRepository);
+    }
+
+    @Test
+    @DisplayName("FindWithTechnologyIds: Should not query when ids are empty")
+    void findCapacitiesWithTechnologyIds_WhenEmpty_ShouldNotQuery() {
+        // Act & Assert
+        StepVerifier.create(capacityRepositoryAdapter.findCapacitiesWithTechnologyIds(List.of())).verifyComplete();
+        verifyNoInteractions(databaseClient);
+    }
+
+    @Test
+    @DisplayName("ParseTechnologyIds: Should return an empty list when the capacity has no technologies")
+    void parseTechnologyIds_WhenNull_ShouldReturnEmpty() {
+        // Act & Assert
+        assertTrue(CapacityRepositoryAdapter.parseTechnologyIds(null).isEmpty());
+        assertEquals(List.of(3L, 7L), CapacityRepositoryAdapter.parseTechnologyIds("3,7"));
+    }
+
+    // --- TEST: findCapacitiesByTechnology ---
+
+    @Test
+    @DisplayName("FindByTechnology: Should seek on the technology index from the last capacity id")
+    void findCapacitiesByTechnology_ShouldSeekByCapacityId() {
+        // Arrange
+        CapacityWithTechnologyIdsProjection projection =
+                new CapacityWithTechnologyIdsProjection(4L, "Backend", "Desc", 3L, List.of(7L, 8L, 9L));
+        Capacity capacityModel = new Capacity(4L, "Backend", "Desc", List.of(7L, 8L, 9L), null, 3);
+
+        when(databaseClient.sql(anyString())).thenReturn(genericExecuteSpec);
+        when(genericExecuteSpec.bind(anyString(), any())).thenReturn(genericExecuteSpec);
+        when(genericExecuteSpec.map(any(BiFunction.class))).thenReturn(rowsFetchSpec);
+        when(rowsFetchSpec.all()).thenReturn(Flux.just(projection));
+        when(capacityEntityMapper.toModelWithTechnologyIds(projection)).thenReturn(capacityModel);
 
         // Act
-        Flux<Capacity> result = capacityRepositoryAdapter.findCapacitiesByIds(ids);
+        Flux<Capacity> result = capacityRepositoryAdapter.findCapacitiesByTechnology(7L, null, 20);
 
         // Assert
         StepVerifier.create(result)
-                .expectNext(model)
+                .expectNext(capacityModel)
                 .verifyComplete();
+
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(databaseClient).sql(sqlCaptor.capture());
+        assertTrue(sqlCaptor.getValue().contains("WHERE link.technology_id = :technologyId AND link.capacity_id > :afterId"));
+        assertTrue(sqlCaptor.getValue().contains("ORDER BY link.capacity_id"));
+        assertTrue(!sqlCaptor.getValue().contains("OFFSET"));
+        verify(genericExecuteSpec).bind("technologyId", 7L);
+        verify(genericExecuteSpec).bind("afterId", 0L);
+        verify(genericExecuteSpec).bind("limit", 20);
     }
 
     // --- TEST: deleteCapacities ---
@@ -231,6 +664,8 @@ class CapacityRepositoryAdapterTest {
         // Arrange
         List<Long> ids = Arrays.asList(1L, 2L);
 
+        // Sin tecnologias huerfanas no se escribe en el outbox
+        when(capacityTechnologyRepository.findTechnologiesNotReferencedInOtherCapacities(ids)).thenReturn(Flux.empty());
         // 1. Borrado de tabla intermedia
         when(capacityTechnologyRepository.deleteAllByCapacityIdIn(ids)).thenReturn(Mono.empty());
         // 2. Borrado de tabla principal
@@ -245,15 +680,42 @@ class CapacityRepositoryAdapterTest {
                 .verifyComplete();
 
         verify(capacityTechnologyRepository).deleteAllByCapacityIdIn(ids);
+        verifyNoInteractions(databaseClient);
         verify(capacityR2dbcRepository).deleteAllById(ids);
     }
 
+    @Test
+    @DisplayName("DeleteCapacities: Should enqueue orphan technologies in the outbox before deleting")
+    void deleteCapacities_WhenOrphansExist_ShouldEnqueueThem() {
+        // Arrange
+        List<Long> ids = List.of(1L);
+        when(capacityTechnologyRepository.findTechnologiesNotReferencedInOtherCapacities(ids))
+                .thenReturn(Flux.just(100L, 101L));
+        when(databaseClient.sql(anyString())).thenReturn(genericExecuteSpec);
+        when(genericExecuteSpec.bind(anyString(), any())).thenReturn(genericExecuteSpec);
+        when(genericExecuteSpec.fetch()).thenReturn(fetchSpec);
+        when(fetchSpec.rowsUpdated()).thenReturn(Mono.just(2L));
+        when(capacityTechnologyRepository.deleteAllByCapacityIdIn(ids)).thenReturn(Mono.empty());
+        when(capacityR2dbcRepository.deleteAllById(ids)).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(capacityRepositoryAdapter.deleteCapacities(ids))
+                .expectNext(true)
+                .verifyComplete();
+
+        verify(databaseClient).sql(
+                "INSERT INTO technology_deletion_outbox (technology_id) VALUES (:technologyId0), (:technologyId1)");
+        verify(genericExecuteSpec).bind("technologyId0", 100L);
+        verify(genericExecuteSpec).bind("technologyId1", 101L);
+    }
+
     @Test
     @DisplayName("DeleteCapacities: Should propagate error if deletion fails")
     void deleteCapacities_OnError_ShouldReturnError() {
         // Arrange
         List<Long> ids = Arrays.asList(1L);
 
+        when(capacityTechnologyRepository.findTechnologiesNotReferencedInOtherCapacities(ids)).thenReturn(Flux.empty());
         // Simulamos que el primer paso falla
         when(capacityTechnologyRepository.deleteAllByCapacityIdIn(ids))
                 .thenReturn(Mono.error(new RuntimeException("DB Error")));
@@ -289,4 +751,54 @@ class CapacityRepositoryAdapterTest {
                 .expectNext(100L)
                 .verifyComplete();
     }
-}
\ No newline at end of file
+
+    // --- TEST: rebuildTechnologyCounts ---
+
+    @Test
+    @DisplayName("RebuildTechnologyCounts: Should delegate to repository")
+    void rebuildTechnologyCounts_ShouldReturnRepairedRows() {
+        // Arrange
+        when(capacityR2dbcRepository.rebuildTechnologyCounts()).thenReturn(Mono.just(3L));
+
+        // Act
+        Mono<Long> result = capacityRepositoryAdapter.rebuildTechnologyCounts();
+
+        // Assert
+        StepVerifier.create(result)
+                .expectNext(3L)
+                .verifyComplete();
+    }
+
+    // Transaccion reactiva sin base de datos: solo notifica el commit para verificar el orden de los efectos
+    private static class RecordingTransactionManager extends AbstractReactiveTransactionManager {
+
+        private final Runnable onCommit;
+
+        RecordingTransactionManager(Runnable onCommit) {
+            this.onCommit = onCommit;
+        }
+
+        @Override
+        protected Object doGetTransaction(TransactionSynchronizationManager synchronizationManager) {
+            return new Object();
+        }
+
+        @Override
+        protected Mono<Void> doBegin(TransactionSynchronizationManager synchronizationManager, Object transaction,
+                                     TransactionDefinition definition) {
+            return Mono.empty();
+        }
+
+        @Override
+        protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager,
+                                      GenericReactiveTransaction status) {
+            return Mono.fromRunnable(onCommit);
+        }
+
+        @Override
+        protected Mono<Void> doRollback(TransactionSynchronizationManager synchronizationManager,
+                                        GenericReactiveTransaction status) {
+            return Mono.empty();
+        }
+    }
+}
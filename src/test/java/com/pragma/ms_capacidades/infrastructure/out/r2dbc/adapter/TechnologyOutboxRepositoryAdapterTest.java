@@ -0,0 +1,118 @@
+package com.pragma.ms_capacidades.infrastructure.out.r2dbc.adapter;
+
+import com.pragma.ms_capacidades.domain.model.TechnologyDeletion;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TechnologyOutboxRepositoryAdapterTest {
+
+    @Mock
+    private DatabaseClient databaseClient;
+
+    // Mocks necesarios para la cadena fluida de DatabaseClient
+    @Mock
+    private DatabaseClient.GenericExecuteSpec claimSpec;
+    @Mock
+    private DatabaseClient.GenericExecuteSpec leaseSpec;
+    @Mock
+    private DatabaseClient.GenericExecuteSpec referencedSpec;
+    @Mock
+    private RowsFetchSpec<TechnologyDeletion> claimFetchSpec;
+    @Mock
+    private RowsFetchSpec<Long> referencedFetchSpec;
+
+    @InjectMocks
+    private TechnologyOutboxRepositoryAdapter technologyOutboxRepositoryAdapter;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("ClaimPendingDeletions: Should lock rows, extend their lease and flag the referenced ones")
+    void claimPendingDeletions_ShouldLockLeaseAndFlagReferenced() {
+        // Arrange
+        when(databaseClient.sql(contains("FOR UPDATE SKIP LOCKED"))).thenReturn(claimSpec);
+        when(claimSpec.bind(anyString(), any())).thenReturn(claimSpec);
+        when(claimSpec.map(any(BiFunction.class))).thenReturn(claimFetchSpec);
+        when(claimFetchSpec.all()).thenReturn(Flux.just(
+                new TechnologyDeletion(1L, 100L, 2, false),
+                new TechnologyDeletion(2L, 101L, 0, false)));
+
+        when(databaseClient.sql(startsWith("UPDATE"))).thenReturn(leaseSpec);
+        when(leaseSpec.bind(anyString(), any())).thenReturn(leaseSpec);
+        when(leaseSpec.then()).thenReturn(Mono.empty());
+
+        when(databaseClient.sql(contains("FROM capacity_technology"))).thenReturn(referencedSpec);
+        when(referencedSpec.bind(anyString(), any())).thenReturn(referencedSpec);
+        when(referencedSpec.map(any(BiFunction.class))).thenReturn(referencedFetchSpec);
+        when(referencedFetchSpec.all()).thenReturn(Flux.just(100L));
+
+        // Act
+        List<TechnologyDeletion> claimed = technologyOutboxRepositoryAdapter
+                .claimPendingDeletions(10, Duration.ofMinutes(1))
+                .collectList()
+                .block();
+
+        // Assert
+        assertEquals(2, claimed.size());
+        assertTrue(claimed.get(0).isReferenced());
+        assertFalse(claimed.get(1).isReferenced());
+
+        verify(claimSpec).bind("limit", 10);
+        verify(leaseSpec).bind("leaseSeconds", 60L);
+        verify(leaseSpec).bind("ids", List.of(1L, 2L));
+        verify(referencedSpec).bind("technologyIds", List.of(100L, 101L));
+
+        ArgumentCaptor<BiFunction<Row, RowMetadata, TechnologyDeletion>> mapper =
+                ArgumentCaptor.forClass(BiFunction.class);
+        verify(claimSpec).map(mapper.capture());
+        Row row = mock(Row.class);
+        when(row.get("id", Long.class)).thenReturn(3L);
+        when(row.get("technology_id", Long.class)).thenReturn(102L);
+        when(row.get("attempts", Integer.class)).thenReturn(4);
+        TechnologyDeletion mapped = mapper.getValue().apply(row, null);
+        assertEquals(102L, mapped.getTechnologyId());
+        assertEquals(4, mapped.getAttempts());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("ClaimPendingDeletions: Should not touch the lease when nothing is pending")
+    void claimPendingDeletions_WhenNothingPending_ShouldNotUpdate() {
+        // Arrange
+        when(databaseClient.sql(contains("FOR UPDATE SKIP LOCKED"))).thenReturn(claimSpec);
+        when(claimSpec.bind(anyString(), any())).thenReturn(claimSpec);
+        when(claimSpec.map(any(BiFunction.class))).thenReturn(claimFetchSpec);
+        when(claimFetchSpec.all()).thenReturn(Flux.empty());
+
+        // Act & Assert
+        StepVerifier.create(technologyOutboxRepositoryAdapter.claimPendingDeletions(10, Duration.ofMinutes(1)))
+                .verifyComplete();
+
+        verify(databaseClient, times(1)).sql(anyString());
+    }
+}
@@ -0,0 +1,135 @@
+package com.pragma.ms_capacidades.infrastructure.out.r2dbc.migration;
+
+import com.pragma.ms_capacidades.infrastructure.out.r2dbc.repository.ICapacityR2dbcRepository;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.FetchSpec;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SchemaMigrationTest {
+
+    @Mock
+    private DatabaseClient databaseClient;
+    @Mock
+    private ICapacityR2dbcRepository capacityR2dbcRepository;
+    @Mock
+    private ConnectionFactory connectionFactory;
+    @Mock
+    private ConnectionFactoryMetadata metadata;
+
+    // Mocks necesarios para la cadena fluida de DatabaseClient
+    @Mock
+    private DatabaseClient.GenericExecuteSpec columnSpec;
+    @Mock
+    private DatabaseClient.GenericExecuteSpec indexSpec;
+    @Mock
+    private DatabaseClient.GenericExecuteSpec ddlSpec;
+    @Mock
+    private RowsFetchSpec<Long> columnFetchSpec;
+    @Mock
+    private RowsFetchSpec<Long> indexFetchSpec;
+    @Mock
+    private FetchSpec<Map<String, Object>> ddlFetchSpec;
+
+    @InjectMocks
+    private SchemaMigration schemaMigration;
+
+    @BeforeEach
+    void setUp() {
+        when(databaseClient.getConnectionFactory()).thenReturn(connectionFactory);
+        doReturn(metadata).when(connectionFactory).getMetadata();
+        when(metadata.getName()).thenReturn("MySQL");
+
+        when(databaseClient.sql(contains("information_schema.COLUMNS"))).thenReturn(columnSpec);
+        when(columnSpec.bind(anyString(), any())).thenReturn(columnSpec);
+        when(columnSpec.map(any(BiFunction.class))).thenReturn(columnFetchSpec);
+
+        when(databaseClient.sql(contains("information_schema.STATISTICS"))).thenReturn(indexSpec);
+        when(indexSpec.bind(anyString(), any())).thenReturn(indexSpec);
+        when(indexSpec.map(any(BiFunction.class))).thenReturn(indexFetchSpec);
+        when(indexFetchSpec.one()).thenReturn(Mono.just(1L));
+
+        when(databaseClient.sql(startsWith("ALTER"))).thenReturn(ddlSpec);
+        when(databaseClient.sql(startsWith("CREATE INDEX"))).thenReturn(ddlSpec);
+        when(ddlSpec.fetch()).thenReturn(ddlFetchSpec);
+        when(ddlFetchSpec.rowsUpdated()).thenReturn(Mono.just(0L));
+    }
+
+    @Test
+    @DisplayName("Migrate: Should add technology_count and backfill it once when the column is missing")
+    void migrateSchema_WhenColumnMissing_ShouldAlterAndRebuildCounts() {
+        // Arrange
+        when(columnFetchSpec.one()).thenReturn(Mono.just(0L));
+        when(capacityR2dbcRepository.rebuildTechnologyCounts()).thenReturn(Mono.just(3L));
+
+        // Act & Assert
+        StepVerifier.create(schemaMigration.migrateSchema()).verifyComplete();
+
+        verify(databaseClient).sql("ALTER TABLE capacities ADD COLUMN technology_count INT NOT NULL DEFAULT 0");
+        verify(capacityR2dbcRepository).rebuildTechnologyCounts();
+    }
+
+    @Test
+    @DisplayName("Migrate: Should leave an up-to-date schema untouched")
+    void migrateSchema_WhenSchemaCurrent_ShouldNotRunDdl() {
+        // Arrange
+        when(columnFetchSpec.one()).thenReturn(Mono.just(1L));
+
+        // Act & Assert
+        StepVerifier.create(schemaMigration.migrateSchema()).verifyComplete();
+
+        verify(ddlSpec, never()).fetch();
+        verify(capacityR2dbcRepository, never()).rebuildTechnologyCounts();
+    }
+
+    @Test
+    @DisplayName("Migrate: Should create a missing index")
+    void migrateSchema_WhenIndexMissing_ShouldCreateIt() {
+        // Arrange
+        when(columnFetchSpec.one()).thenReturn(Mono.just(1L));
+        when(indexFetchSpec.one()).thenReturn(Mono.just(0L));
+
+        // Act & Assert
+        StepVerifier.create(schemaMigration.migrateSchema()).verifyComplete();
+
+        verify(databaseClient).sql(
+                "CREATE INDEX idx_capacities_technology_count ON capacities (technology_count, id)");
+        verify(databaseClient).sql(
+                "CREATE INDEX idx_capacity_technology_technology ON capacity_technology (technology_id, capacity_id)");
+    }
+
+    @Test
+    @DisplayName("Migrate: Should skip databases other than MySQL")
+    void migrateSchema_WhenNotMySql_ShouldSkip() {
+        // Arrange
+        when(metadata.getName()).thenReturn("H2");
+
+        // Act & Assert
+        StepVerifier.create(schemaMigration.migrateSchema()).verifyComplete();
+
+        verify(databaseClient, never()).sql(anyString());
+    }
+}